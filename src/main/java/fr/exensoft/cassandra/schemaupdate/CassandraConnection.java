@@ -2,14 +2,22 @@ package fr.exensoft.cassandra.schemaupdate;
 
 import com.datastax.driver.core.*;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.AbstractDelta;
+import fr.exensoft.cassandra.schemaupdate.loader.CachedSchemaLoader;
 import fr.exensoft.cassandra.schemaupdate.loader.ClusterSchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.loader.ConcurrentKeyspaceLoader;
+import fr.exensoft.cassandra.schemaupdate.loader.LegacySchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.loader.ListeningSchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.loader.SystemSchemaLoader;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
 import fr.exensoft.cassandra.schemaupdate.model.Table;
 import fr.exensoft.cassandra.schemaupdate.loader.SchemaLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class CassandraConnection implements SchemaLoader {
 
@@ -22,6 +30,16 @@ public class CassandraConnection implements SchemaLoader {
 
 	private SchemaLoader schemaLoader = null;
 
+	private boolean schemaCacheEnabled = false;
+
+	private boolean schemaListenerEnabled = false;
+
+	private boolean legacySchemaEnabled = false;
+
+	private int loadParallelism = 8;
+
+	private ListeningSchemaLoader schemaListener = null;
+
 	CassandraConnection(Cluster cluster) {
 		this.cluster = cluster;
 	}
@@ -42,11 +60,58 @@ public class CassandraConnection implements SchemaLoader {
 		}
 		isConnected = false;
 
+		if(schemaListener != null) {
+			cluster.unregister(schemaListener);
+			schemaListener = null;
+			schemaLoader = null;
+		}
 
 		session.close();
 		cluster.close();
 	}
 
+	/**
+	 * Enable or disable the keyspace snapshot cache (disabled by default).
+	 * Loaded keyspaces are reused until the schema version of the cluster changes, the cache is only used
+	 * when keyspaces are read from the schema tables (driver metadata disabled) : driver metadata is refreshed
+	 * asynchronously and may not match the schema version read from the cluster.
+	 * Must be called before loading the first keyspace.
+	 * @param schemaCacheEnabled
+	 */
+	public void setSchemaCacheEnabled(boolean schemaCacheEnabled) {
+		this.schemaCacheEnabled = schemaCacheEnabled;
+	}
+
+	/**
+	 * Enable or disable the schema change listener (disabled by default).
+	 * When enabled and when driver metadata is enabled, loaded keyspaces are kept in memory and updated
+	 * with the schema change events of the driver, only the changed tables are converted again.
+	 * Must be called before loading the first keyspace.
+	 * @param schemaListenerEnabled
+	 */
+	public void setSchemaListenerEnabled(boolean schemaListenerEnabled) {
+		this.schemaListenerEnabled = schemaListenerEnabled;
+	}
+
+	/**
+	 * Read the schema from the legacy schema tables of Cassandra 1.x and 2.x (disabled by default).
+	 * When enabled, driver metadata and the schema change listener are not used. Clusters running Cassandra 2.x
+	 * can also be read from driver metadata (default), this is only needed when driver metadata is disabled.
+	 * Must be called before loading the first keyspace.
+	 * @param legacySchemaEnabled
+	 */
+	public void setLegacySchemaEnabled(boolean legacySchemaEnabled) {
+		this.legacySchemaEnabled = legacySchemaEnabled;
+	}
+
+	/**
+	 * Set the maximum number of keyspaces loaded at the same time by loadKeyspaces (8 by default)
+	 * @param loadParallelism
+	 */
+	public void setLoadParallelism(int loadParallelism) {
+		this.loadParallelism = loadParallelism;
+	}
+
 	public void applyDelta(AbstractDelta delta) {
 		session.execute(delta.generateCQL());
 	}
@@ -62,6 +127,29 @@ public class CassandraConnection implements SchemaLoader {
         return getSchemaLoader().loadKeyspace(name);
     }
 
+    @Override
+    public Keyspace loadKeyspace(String name, Collection<String> tables) {
+        return getSchemaLoader().loadKeyspace(name, tables);
+    }
+
+    /**
+     * Load several keyspaces concurrently
+     * @param names Names of the keyspaces
+     * @return Loaded keyspaces by name in completion order, keyspaces that do not exist are not in the map
+     */
+    public Map<String, Keyspace> loadKeyspaces(Collection<String> names) {
+        return new ConcurrentKeyspaceLoader(getSchemaLoader(), loadParallelism).loadKeyspaces(names);
+    }
+
+    /**
+     * Load several keyspaces concurrently, each keyspace is given to the consumer as soon as it is loaded
+     * @param names Names of the keyspaces
+     * @param consumer Called in the calling thread with the name of the keyspace and the keyspace (null if it does not exist)
+     */
+    public void loadKeyspaces(Collection<String> names, BiConsumer<String, Keyspace> consumer) {
+        new ConcurrentKeyspaceLoader(getSchemaLoader(), loadParallelism).loadKeyspaces(names, consumer);
+    }
+
     @Override
     public List<Table> loadTables(String keyspace_name) {
         return getSchemaLoader().loadTables(keyspace_name);
@@ -77,7 +165,37 @@ public class CassandraConnection implements SchemaLoader {
 	        return schemaLoader;
         }
 
-        schemaLoader = new ClusterSchemaLoader(cluster);
+        // Cassandra 1.x and 2.x : schema is read from the legacy schema tables
+        if(legacySchemaEnabled) {
+            LOGGER.info("Using legacy schema tables (system.schema_keyspaces, system.schema_columns)");
+            schemaLoader = new LegacySchemaLoader(session);
+            if(schemaCacheEnabled) {
+                schemaLoader = new CachedSchemaLoader(schemaLoader, session);
+            }
+            return schemaLoader;
+        }
+
+        boolean metadataEnabled = cluster.getConfiguration().getQueryOptions().isMetadataEnabled();
+
+        // Keyspaces are kept up to date by the driver events, no need for the snapshot cache
+        if(schemaListenerEnabled && metadataEnabled) {
+            schemaListener = new ListeningSchemaLoader(cluster);
+            cluster.register(schemaListener);
+            schemaLoader = schemaListener;
+            return schemaLoader;
+        }
+
+        // Without driver metadata, schema is read from system_schema tables
+        if(metadataEnabled) {
+            schemaLoader = new ClusterSchemaLoader(cluster);
+        }
+        else {
+            LOGGER.debug("Cluster metadata disabled, using system_schema tables");
+            schemaLoader = new SystemSchemaLoader(session);
+            if(schemaCacheEnabled) {
+                schemaLoader = new CachedSchemaLoader(schemaLoader, session);
+            }
+        }
         return schemaLoader;
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,19 @@
 package fr.exensoft.cassandra.schemaupdate;
 
 import com.datastax.driver.core.Cluster;
+import fr.exensoft.cassandra.schemaupdate.comparator.ClusterComparator;
 import fr.exensoft.cassandra.schemaupdate.comparator.KeyspaceComparator;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.AbstractDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * SchemaUpdate is the main element of CassandraSchemaUpdate.
@@ -21,8 +25,20 @@ public class SchemaUpdate {
 
     private CassandraConnection cassandraConnection;
 
+    private boolean detectDroppedTables;
+
+    private boolean dropUnexpectedKeyspaces;
+
+    private ForkJoinPool comparisonPool;
+
+    private Set<String> ignoredKeyspaces;
+
     private SchemaUpdate(Builder builder) {
         cassandraConnection = builder.cassandraConnection;
+        detectDroppedTables = builder.detectDroppedTables;
+        dropUnexpectedKeyspaces = builder.dropUnexpectedKeyspaces;
+        ignoredKeyspaces = builder.ignoredKeyspaces;
+        comparisonPool = builder.comparisonPool;
         cassandraConnection.connect();
     }
 
@@ -31,17 +47,51 @@ public class SchemaUpdate {
      * Create a patch that describe the operations you need to execute to obtain the
      * targetKeyspace in your Cassandra database.
      * It loads the keyspace from the database if it exists and finds the differences between the
-     * existing keyspace and the targetKeyspace
+     * existing keyspace and the targetKeyspace.
+     *
+     * Unless dropped tables detection is enabled (see {@link Builder#withDroppedTablesDetection(boolean)}),
+     * only the tables described in the targetKeyspace are loaded and the other tables of the keyspace are ignored.
      *
      * @param targetKeyspace The target keyspace
      * @return The patch you need to execute to obtain the target keyspace
      */
     public DeltaResult createPatch(Keyspace targetKeyspace) {
         // Load current keyspace
-        Keyspace sourceKeyspace = cassandraConnection.loadKeyspace(targetKeyspace.getName());
+        Keyspace sourceKeyspace;
+        if(detectDroppedTables) {
+            sourceKeyspace = cassandraConnection.loadKeyspace(targetKeyspace.getName());
+        }
+        else {
+            List<String> tables = targetKeyspace.getTables().stream()
+                    .map(Table::getName)
+                    .collect(Collectors.toList());
+            sourceKeyspace = cassandraConnection.loadKeyspace(targetKeyspace.getName(), tables);
+        }
 
         // Comparing sourceKeyspace with targetKeyspace
-        return new KeyspaceComparator(sourceKeyspace, targetKeyspace).compare();
+        return new KeyspaceComparator(sourceKeyspace, targetKeyspace)
+                .setDetectDroppedTables(detectDroppedTables)
+                .setPool(comparisonPool)
+                .compare();
+    }
+
+    /**
+     * Create a patch for each keyspace of the cluster and each keyspace of the catalog : keyspaces of the
+     * catalog are created or updated. The other keyspaces of the cluster (except system, tool and ignored keyspaces,
+     * see {@link Builder#withIgnoredKeyspaces(String...)}) are only dropped when unexpected keyspaces drop is enabled
+     * (see {@link Builder#withUnexpectedKeyspacesDrop(boolean)}), otherwise they are returned with an empty patch.
+     * Keyspaces are loaded concurrently, see {@link ClusterComparator}.
+     *
+     * @param catalog The target keyspaces
+     * @return The patch of each keyspace, by keyspace name
+     */
+    public Map<String, DeltaResult> createClusterPatch(Collection<Keyspace> catalog) {
+        return new ClusterComparator(cassandraConnection, catalog)
+                .setDetectDroppedTables(detectDroppedTables)
+                .setDropUnexpectedKeyspaces(dropUnexpectedKeyspaces)
+                .addIgnoredKeyspaces(ignoredKeyspaces.toArray(new String[0]))
+                .setPool(comparisonPool)
+                .compare();
     }
 
     /**
@@ -56,7 +106,8 @@ public class SchemaUpdate {
     }
 
     /**
-     * Apply a patch to the database
+     * Apply a patch to the database : the keyspace first, then the tables sorted by name
+     * (same order as the script written by CQLScriptWriter)
      * @param deltaResult Patch to execute
      */
     public void applyPatch(DeltaResult deltaResult) {
@@ -70,7 +121,8 @@ public class SchemaUpdate {
             applyDeltaList(deltaResult.getKeyspaceDelta());
         }
 
-        for(Map.Entry<String, DeltaList> entry : deltaResult.getTablesDelta().entrySet()) {
+        Map<String, DeltaList> tablesDelta = new TreeMap<>(deltaResult.getTablesDelta());
+        for(Map.Entry<String, DeltaList> entry : tablesDelta.entrySet()) {
             if(entry.getValue().hasUpdate()) {
                 LOGGER.info("Applying patch on table {}", entry.getKey());
                 applyDeltaList(entry.getValue());
@@ -95,6 +147,20 @@ public class SchemaUpdate {
 
         private CassandraConnection cassandraConnection;
 
+        private boolean schemaCache = false;
+
+        private boolean schemaListener = false;
+
+        private boolean legacySchema = false;
+
+        private boolean detectDroppedTables = false;
+
+        private boolean dropUnexpectedKeyspaces = false;
+
+        private ForkJoinPool comparisonPool;
+
+        private Set<String> ignoredKeyspaces = new HashSet<>();
+
         /**
          * A cluster element (not connected)
          * @param cluster
@@ -115,6 +181,87 @@ public class SchemaUpdate {
             return this;
         }
 
+        /**
+         * Enable or disable the keyspace snapshot cache of the CassandraConnection created from the Cluster
+         * (disabled by default). Loaded keyspaces are reused until the schema version of the cluster changes,
+         * the cache is only used when driver metadata is disabled (see {@link CassandraConnection#setSchemaCacheEnabled(boolean)}).
+         * @param schemaCache
+         * @return
+         */
+        public Builder withSchemaCache(boolean schemaCache) {
+            this.schemaCache = schemaCache;
+            return this;
+        }
+
+        /**
+         * Enable or disable the schema change listener of the CassandraConnection created from the Cluster
+         * (disabled by default). Loaded keyspaces are then updated with the schema change events of the driver
+         * instead of being loaded again, this requires driver metadata.
+         * @param schemaListener
+         * @return
+         */
+        public Builder withSchemaListener(boolean schemaListener) {
+            this.schemaListener = schemaListener;
+            return this;
+        }
+
+        /**
+         * Read the schema of the CassandraConnection created from the Cluster from the legacy schema tables
+         * of Cassandra 1.x and 2.x (disabled by default). Only needed with Cassandra 2.x when driver metadata
+         * is disabled, see {@link CassandraConnection#setLegacySchemaEnabled(boolean)}.
+         * @param legacySchema
+         * @return
+         */
+        public Builder withLegacySchema(boolean legacySchema) {
+            this.legacySchema = legacySchema;
+            return this;
+        }
+
+        /**
+         * Enable or disable the detection of dropped tables (disabled by default).
+         * When enabled, the whole keyspace is loaded and the tables that are not described in the target keyspace
+         * are dropped by the patch.
+         * @param detectDroppedTables
+         * @return
+         */
+        public Builder withDroppedTablesDetection(boolean detectDroppedTables) {
+            this.detectDroppedTables = detectDroppedTables;
+            return this;
+        }
+
+        /**
+         * Enable or disable the drop of the keyspaces of the cluster that are not in the catalog given
+         * to createClusterPatch (disabled by default). System, tool and ignored keyspaces are never dropped.
+         * @param dropUnexpectedKeyspaces
+         * @return
+         */
+        public Builder withUnexpectedKeyspacesDrop(boolean dropUnexpectedKeyspaces) {
+            this.dropUnexpectedKeyspaces = dropUnexpectedKeyspaces;
+            return this;
+        }
+
+        /**
+         * Keyspaces of the cluster never dropped nor reported by createClusterPatch, in addition to the
+         * system keyspaces and the keyspaces of DSE and common tools
+         * @param keyspaces
+         * @return
+         */
+        public Builder withIgnoredKeyspaces(String... keyspaces) {
+            this.ignoredKeyspaces.addAll(Arrays.asList(keyspaces));
+            return this;
+        }
+
+        /**
+         * Compare the tables of the keyspaces in parallel on the given pool (tables are compared
+         * in the calling thread by default)
+         * @param comparisonPool
+         * @return
+         */
+        public Builder withComparisonPool(ForkJoinPool comparisonPool) {
+            this.comparisonPool = comparisonPool;
+            return this;
+        }
+
         /**
          * Create an instance of SchemaUpdate with the described parameters
          * You must have defined a Cluster object or a CassandraConnection object.
@@ -128,6 +275,9 @@ public class SchemaUpdate {
                     throw new SchemaUpdateException("You must define a Cluster or a CassandraConnection object");
                 }
                 cassandraConnection = new CassandraConnection(cluster);
+                cassandraConnection.setSchemaCacheEnabled(schemaCache);
+                cassandraConnection.setSchemaListenerEnabled(schemaListener);
+                cassandraConnection.setLegacySchemaEnabled(legacySchema);
             }
             return new SchemaUpdate(this);
         }
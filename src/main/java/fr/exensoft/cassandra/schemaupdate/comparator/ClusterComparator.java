@@ -0,0 +1,192 @@
+package fr.exensoft.cassandra.schemaupdate.comparator;
+
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaFilter;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.loader.ConcurrentKeyspaceLoader;
+import fr.exensoft.cassandra.schemaupdate.loader.SchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Find differences between all the keyspaces of a cluster and a catalog of target keyspaces.
+ *
+ * A DeltaResult is returned for each keyspace of the catalog and each keyspace of the cluster :
+ * keyspaces of the catalog missing on the cluster are created. Keyspaces of the cluster that are not
+ * in the catalog (unexpected keyspaces) are only reported with an empty result, unless unexpected keyspaces
+ * must be dropped (see setDropUnexpectedKeyspaces). System keyspaces and the keyspaces of DSE and common
+ * tools are ignored, the ignore list can be extended with addIgnoredKeyspaces.
+ *
+ * Keyspaces of the catalog are loaded concurrently (see ConcurrentKeyspaceLoader) and compared as soon
+ * as they are loaded, unexpected keyspaces are not loaded. When dropped tables detection is disabled, only
+ * the tables of the catalog are loaded.
+ */
+public class ClusterComparator {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(ClusterComparator.class);
+
+    /**
+     * Keyspaces managed by Cassandra, never compared
+     */
+    public final static Set<String> SYSTEM_KEYSPACES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "system", "system_schema", "system_auth", "system_distributed", "system_traces", "system_virtual_schema", "system_views")));
+
+    /**
+     * Keyspaces of DataStax Enterprise (with the "dse_" prefix) and common tools, ignored by default
+     */
+    public final static Set<String> TOOL_KEYSPACES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "solr_admin", "cfs", "cfs_archive", "dsefs", "HiveMetaStore", "OpsCenter", "reaper_db")));
+
+    private SchemaLoader schemaLoader;
+
+    private Map<String, Keyspace> catalog;
+
+    private int parallelism = 8;
+
+    private boolean detectDroppedTables = true;
+
+    private boolean dropUnexpectedKeyspaces = false;
+
+    private Predicate<String> ignoredKeyspaces = name -> SYSTEM_KEYSPACES.contains(name) || TOOL_KEYSPACES.contains(name) || name.startsWith("dse_");
+
+    private ForkJoinPool pool;
+
+    private DeltaFilter filter;
+
+    /**
+     * @param schemaLoader Loader of the cluster schema, must be thread safe
+     * @param catalog Target keyspaces
+     */
+    public ClusterComparator(SchemaLoader schemaLoader, Collection<Keyspace> catalog) {
+        this.schemaLoader = schemaLoader;
+        this.catalog = new LinkedHashMap<>();
+        for(Keyspace keyspace : catalog) {
+            this.catalog.put(keyspace.getName(), keyspace);
+        }
+    }
+
+    /**
+     * Set the maximum number of keyspaces loaded at the same time (8 by default)
+     * @param parallelism
+     * @return The comparator itself
+     */
+    public ClusterComparator setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Enable or disable the detection of dropped tables in the keyspaces of the catalog (enabled by default),
+     * see KeyspaceComparator.setDetectDroppedTables
+     * @param detectDroppedTables
+     * @return The comparator itself
+     */
+    public ClusterComparator setDetectDroppedTables(boolean detectDroppedTables) {
+        this.detectDroppedTables = detectDroppedTables;
+        return this;
+    }
+
+    /**
+     * Drop the keyspaces of the cluster that are not in the catalog (disabled by default).
+     * When disabled, unexpected keyspaces are returned with an empty result.
+     * @param dropUnexpectedKeyspaces
+     * @return The comparator itself
+     */
+    public ClusterComparator setDropUnexpectedKeyspaces(boolean dropUnexpectedKeyspaces) {
+        this.dropUnexpectedKeyspaces = dropUnexpectedKeyspaces;
+        return this;
+    }
+
+    /**
+     * Ignore other keyspaces of the cluster, in addition to the system and tool keyspaces.
+     * Ignored keyspaces are never reported nor dropped, they are still compared if they are in the catalog.
+     * @param names Names of the keyspaces
+     * @return The comparator itself
+     */
+    public ClusterComparator addIgnoredKeyspaces(String... names) {
+        Set<String> keyspaces = new HashSet<>(Arrays.asList(names));
+        return addIgnoredKeyspaces(keyspaces::contains);
+    }
+
+    /**
+     * Ignore the keyspaces of the cluster accepted by the predicate, in addition to the keyspaces already ignored
+     * @param predicate
+     * @return The comparator itself
+     */
+    public ClusterComparator addIgnoredKeyspaces(Predicate<String> predicate) {
+        this.ignoredKeyspaces = this.ignoredKeyspaces.or(predicate);
+        return this;
+    }
+
+    /**
+     * Compare the tables of each keyspace in parallel on the given pool, see KeyspaceComparator.setPool
+     * @param pool
+     * @return The comparator itself
+     */
+    public ClusterComparator setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Filter applied to the comparison of each keyspace, see KeyspaceComparator.setFilter
+     * @param filter
+     * @return The comparator itself
+     */
+    public ClusterComparator setFilter(DeltaFilter filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * Load the keyspaces of the cluster and compare them with the catalog
+     * @return The result of each keyspace, sorted by keyspace name
+     */
+    public Map<String, DeltaResult> compare() {
+        Map<String, DeltaResult> results = new TreeMap<>();
+
+        // Unexpected keyspaces are only reported or dropped, their tables are not loaded
+        for(String name : schemaLoader.listKeyspaces()) {
+            if(!catalog.containsKey(name) && !ignoredKeyspaces.test(name)) {
+                if(dropUnexpectedKeyspaces) {
+                    results.put(name, compareKeyspaces(new Keyspace(name), null));
+                }
+                else {
+                    LOGGER.info("Keyspace {} is not in the catalog", name);
+                    results.put(name, new DeltaResult(name, new DeltaList(), new HashMap<>()));
+                }
+            }
+        }
+
+        ConcurrentKeyspaceLoader.load(catalog.keySet(), this::loadKeyspace, parallelism, false, (name, keyspace) ->
+                results.put(name, compareKeyspaces(keyspace, catalog.get(name))));
+
+        return results;
+    }
+
+    /**
+     * Load a keyspace of the catalog from the cluster, the whole keyspace is only needed to detect dropped tables
+     * @param name
+     * @return
+     */
+    private Keyspace loadKeyspace(String name) {
+        if(detectDroppedTables) {
+            return schemaLoader.loadKeyspace(name);
+        }
+        return schemaLoader.loadKeyspace(name, catalog.get(name).getTableNames());
+    }
+
+    private DeltaResult compareKeyspaces(Keyspace source, Keyspace target) {
+        return new KeyspaceComparator(source, target)
+                .setDetectDroppedTables(detectDroppedTables)
+                .setPool(pool)
+                .setFilter(filter)
+                .compare();
+    }
+}
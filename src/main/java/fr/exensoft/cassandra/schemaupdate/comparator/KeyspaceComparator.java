@@ -1,18 +1,28 @@
 package fr.exensoft.cassandra.schemaupdate.comparator;
 
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaFilter;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.CreateKeyspaceDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.DropKeyspaceDelta;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
 import fr.exensoft.cassandra.schemaupdate.model.Table;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Find differences between two keyspaces by returning a delta list.
+ *
+ * Tables can be compared in parallel on a ForkJoinPool (see setPool). The comparison only reads the
+ * keyspaces : all the tables are validated before the parallel comparison starts, and the keyspaces
+ * must not be modified by other threads until compare returns.
  */
 public class KeyspaceComparator {
 
@@ -23,6 +33,12 @@ public class KeyspaceComparator {
 
     private Map<String, DeltaList> tablesDelta;
 
+    private boolean detectDroppedTables = true;
+
+    private ForkJoinPool pool;
+
+    private DeltaFilter filter;
+
     /**
      * Create a new Keyspace comparator.
      *
@@ -34,6 +50,42 @@ public class KeyspaceComparator {
         this.target = target;
     }
 
+    /**
+     * Enable or disable the detection of dropped tables (enabled by default).
+     * When disabled, tables of the source keyspace that are not described in the target keyspace are ignored,
+     * the source keyspace can then contain only the tables of the target keyspace.
+     *
+     * @param detectDroppedTables
+     * @return The comparator itself
+     */
+    public KeyspaceComparator setDetectDroppedTables(boolean detectDroppedTables) {
+        this.detectDroppedTables = detectDroppedTables;
+        return this;
+    }
+
+    /**
+     * Compare the tables in parallel on the given pool (null to compare them in the calling thread, default).
+     *
+     * @param pool
+     * @return The comparator itself
+     */
+    public KeyspaceComparator setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Only compare the tables and keep the deltas accepted by the filter (null to compare everything, default).
+     * Tables are not compared at all when the filter rejects their name or every table and column delta.
+     *
+     * @param filter
+     * @return The comparator itself
+     */
+    public KeyspaceComparator setFilter(DeltaFilter filter) {
+        this.filter = filter;
+        return this;
+    }
+
     /**
      * Find differences between source keyspace and target keyspace
      * (only keyspace differences, not differences in tables of keyspaces)
@@ -67,43 +119,97 @@ public class KeyspaceComparator {
      * @param target
      */
     private void compareTables(Table source, Table target) {
-        TableComparator tableComparator = new TableComparator(source, target);
+        TableComparator tableComparator = new TableComparator(source, target).setFilter(filter);
         tablesDelta.put(tableComparator.getTableName(), tableComparator.compare());
     }
 
+    /**
+     * Compare each pair of tables, in parallel if a pool is defined
+     * @param tables Pairs of source table and target table
+     */
+    private void compareTables(List<Map.Entry<Table, Table>> tables) {
+        if(pool == null || tables.size() < 2) {
+            tablesDelta = new HashMap<>();
+            tables.forEach(pair -> compareTables(pair.getKey(), pair.getValue()));
+            return;
+        }
+
+        // Validate tables before sharing them between threads, validating an already validated table only reads it
+        for(Map.Entry<Table, Table> pair : tables) {
+            if(pair.getKey() != null) {
+                pair.getKey().validate();
+            }
+            if(pair.getValue() != null) {
+                pair.getValue().validate();
+            }
+        }
+
+        tablesDelta = new ConcurrentHashMap<>();
+        try {
+            pool.submit(() -> tables.parallelStream().forEach(pair -> compareTables(pair.getKey(), pair.getValue()))).get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaUpdateException("Interrupted while comparing tables", e);
+        }
+        catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SchemaUpdateException("Unable to compare tables", e);
+        }
+    }
+
     /**
      * Find differences between source keyspace and target keyspace and their tables
      *
      * @return A DeltaResult instance that will describe differences for each structure of keyspaces
      */
     public DeltaResult compare() {
-        tablesDelta = new HashMap<>();
-
         // Detect keyspace changes
         compareKeyspaces();
 
-        // Check tables changes
+        // Find the tables to compare
+        List<Map.Entry<Table, Table>> tables = new ArrayList<>();
         if(target != null) {
             // If source keyspace is suppressed we just need to create tables
             if(keyspaceDelta.hasFlag(DeltaFlag.DATA_LOSS) || source == null) {
                 for(Table table : target.getTables()) {
-                    compareTables(null, table);
+                    tables.add(new AbstractMap.SimpleImmutableEntry<>(null, table));
                 }
             }
             else {
                 for(Table targetTable : target.getTables()) {
                     Table sourceTable = source.getTable(targetTable.getName());
-                    compareTables(sourceTable, targetTable);
+                    tables.add(new AbstractMap.SimpleImmutableEntry<>(sourceTable, targetTable));
                 }
-                for(Table sourceTable : source.getTables()) {
-                    Table targetTable = target.getTable(sourceTable.getName());
-                    if(targetTable == null) {
-                        compareTables(sourceTable, null);
+                if(detectDroppedTables) {
+                    // Only dropped tables of the source keyspace are needed
+                    for(String tableName : source.getTableNames()) {
+                        if(!target.hasTable(tableName)) {
+                            // A listed table of a lazy keyspace may not exist anymore when it is built
+                            Table sourceTable = source.getTable(tableName);
+                            if(sourceTable != null) {
+                                tables.add(new AbstractMap.SimpleImmutableEntry<>(sourceTable, null));
+                            }
+                        }
                     }
                 }
             }
         }
 
+        // Check tables changes
+        if(filter != null) {
+            if(filter.accept(ElementType.TABLE, DeltaType.values()) || filter.accept(ElementType.COLUMN, DeltaType.values())) {
+                tables.removeIf(pair -> !filter.acceptTable((pair.getValue() != null ? pair.getValue() : pair.getKey()).getName()));
+            }
+            else {
+                tables.clear();
+            }
+            filter.apply(keyspaceDelta);
+        }
+        compareTables(tables);
+
         String name = (target!=null)?target.getName():source.getName();
 
         return new DeltaResult(name, keyspaceDelta, tablesDelta);
@@ -0,0 +1,91 @@
+package fr.exensoft.cassandra.schemaupdate.comparator;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.loader.ConcurrentKeyspaceLoader;
+import fr.exensoft.cassandra.schemaupdate.loader.SchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+
+import java.util.*;
+
+/**
+ * Find differences of a keyspace between several clusters (regions, staging, DR...) and a reference cluster.
+ *
+ * The keyspace is loaded from every cluster concurrently, then each cluster is compared with the reference
+ * cluster : the DeltaResult of a cluster describes the operations that transform its keyspace into the
+ * keyspace of the reference cluster. Tables with the same fingerprint as the reference tables are not
+ * compared (see TableComparator), their DeltaList is empty.
+ */
+public class SchemaDriftComparator {
+
+    private String keyspace;
+
+    private Map<String, SchemaLoader> clusters;
+
+    private String reference;
+
+    private int parallelism = 8;
+
+    /**
+     * @param keyspace Name of the keyspace to compare
+     * @param clusters Schema loader of each cluster (CassandraConnection for example) by cluster name
+     * @param reference Name of the reference cluster
+     */
+    public SchemaDriftComparator(String keyspace, Map<String, ? extends SchemaLoader> clusters, String reference) {
+        if(!clusters.containsKey(reference)) {
+            throw new SchemaUpdateException(String.format("Unknown reference cluster \"%s\"", reference));
+        }
+        this.keyspace = keyspace;
+        this.clusters = new LinkedHashMap<>(clusters);
+        this.reference = reference;
+    }
+
+    /**
+     * Set the maximum number of clusters loaded at the same time (8 by default)
+     * @param parallelism
+     * @return The comparator itself
+     */
+    public SchemaDriftComparator setParallelism(int parallelism) {
+        if(parallelism < 1) {
+            throw new SchemaUpdateException("Parallelism must be greater than 0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Load the keyspace from each cluster and compare it with the keyspace of the reference cluster
+     * @return The result of each cluster except the reference cluster, in the order of the clusters
+     */
+    public Map<String, DeltaResult> compare() {
+        Map<String, Keyspace> keyspaces = loadKeyspaces();
+        Keyspace referenceKeyspace = keyspaces.get(reference);
+
+        Map<String, DeltaResult> results = new LinkedHashMap<>();
+        for(String cluster : clusters.keySet()) {
+            if(!cluster.equals(reference)) {
+                results.put(cluster, compare(keyspaces.get(cluster), referenceKeyspace));
+            }
+        }
+        return results;
+    }
+
+    private DeltaResult compare(Keyspace source, Keyspace target) {
+        // Keyspace missing on both clusters
+        if(source == null && target == null) {
+            return new DeltaResult(keyspace, new DeltaList(), new HashMap<>());
+        }
+        return new KeyspaceComparator(source, target).compare();
+    }
+
+    /**
+     * Load the keyspace from all the clusters concurrently
+     * @return The keyspace of each cluster (null if the keyspace does not exist on the cluster)
+     */
+    private Map<String, Keyspace> loadKeyspaces() {
+        Map<String, Keyspace> keyspaces = new HashMap<>();
+        ConcurrentKeyspaceLoader.load(clusters.keySet(), cluster -> clusters.get(cluster).loadKeyspace(keyspace), parallelism, true, keyspaces::put);
+        return keyspaces;
+    }
+}
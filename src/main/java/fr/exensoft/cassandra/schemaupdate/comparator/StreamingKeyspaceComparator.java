@@ -0,0 +1,167 @@
+package fr.exensoft.cassandra.schemaupdate.comparator;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
+import fr.exensoft.cassandra.schemaupdate.loader.SchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Find differences between the tables of two keyspaces without building the keyspaces.
+ *
+ * Source and target tables are read from iterators sorted by table name, each pair of tables is compared
+ * as soon as it is read and its DeltaList is given to a consumer. Only the current source and target tables
+ * are referenced by the comparator, so the memory used is bounded by the largest table when the iterators
+ * build the tables on demand (see loadTables).
+ */
+public class StreamingKeyspaceComparator {
+
+    private Keyspace keyspace;
+
+    private Iterator<Table> source;
+
+    private Iterator<Table> target;
+
+    private boolean detectDroppedTables = true;
+
+    /**
+     * @param keyspace Name of the compared keyspace, used for tables that are not attached to a keyspace
+     * @param source Tables of the source keyspace, sorted by name
+     * @param target Tables of the target keyspace, sorted by name
+     */
+    public StreamingKeyspaceComparator(String keyspace, Iterator<Table> source, Iterator<Table> target) {
+        this.keyspace = new Keyspace(keyspace);
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * Enable or disable the detection of dropped tables (enabled by default).
+     * When disabled, source tables that are not in the target tables are ignored.
+     *
+     * @param detectDroppedTables
+     * @return The comparator itself
+     */
+    public StreamingKeyspaceComparator setDetectDroppedTables(boolean detectDroppedTables) {
+        this.detectDroppedTables = detectDroppedTables;
+        return this;
+    }
+
+    /**
+     * Compare the tables, the consumer is called for each table in name order
+     * @param consumer Called with the name of the table and its DeltaList
+     */
+    public void compare(BiConsumer<String, DeltaList> consumer) {
+        Table sourceTable = next(source, null);
+        Table targetTable = next(target, null);
+
+        while(sourceTable != null || targetTable != null) {
+            int comparison;
+            if(sourceTable == null) {
+                comparison = 1;
+            }
+            else if(targetTable == null) {
+                comparison = -1;
+            }
+            else {
+                comparison = sourceTable.getName().compareTo(targetTable.getName());
+            }
+
+            if(comparison < 0) {
+                // Only in the source tables : dropped table
+                if(detectDroppedTables) {
+                    compareTables(consumer, sourceTable, null);
+                }
+                sourceTable = next(source, sourceTable);
+            }
+            else if(comparison > 0) {
+                // Only in the target tables : created table
+                compareTables(consumer, null, targetTable);
+                targetTable = next(target, targetTable);
+            }
+            else {
+                compareTables(consumer, sourceTable, targetTable);
+                sourceTable = next(source, sourceTable);
+                targetTable = next(target, targetTable);
+            }
+        }
+    }
+
+    private void compareTables(BiConsumer<String, DeltaList> consumer, Table sourceTable, Table targetTable) {
+        for(Table table : Arrays.asList(sourceTable, targetTable)) {
+            if(table != null && table.getKeyspace() == null) {
+                table.setKeyspace(keyspace);
+            }
+        }
+
+        TableComparator tableComparator = new TableComparator(sourceTable, targetTable);
+        consumer.accept(tableComparator.getTableName(), tableComparator.compare());
+    }
+
+    /**
+     * Returns the next table of the iterator and check that the tables are sorted
+     * @param tables
+     * @param previous Previous table of the iterator
+     * @return The next table, or null at the end of the iterator
+     */
+    private Table next(Iterator<Table> tables, Table previous) {
+        if(!tables.hasNext()) {
+            return null;
+        }
+        Table table = tables.next();
+        if(previous != null && previous.getName().compareTo(table.getName()) >= 0) {
+            throw new SchemaUpdateException(String.format("Tables are not sorted by name : \"%s\" is after \"%s\"", table.getName(), previous.getName()));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the tables of a keyspace sorted by name
+     * @param keyspace
+     * @return
+     */
+    public static Iterator<Table> sortedTables(Keyspace keyspace) {
+        List<Table> tables = new ArrayList<>(keyspace.getTables());
+        tables.sort(Comparator.comparing(Table::getName));
+        return tables.iterator();
+    }
+
+    /**
+     * Returns an iterator that loads the tables one at a time, sorted by name.
+     * Tables that do not exist anymore when they are loaded are skipped.
+     * @param schemaLoader Loader used to load each table
+     * @param keyspace Name of the keyspace
+     * @param tableNames Names of the tables to load
+     * @return
+     */
+    public static Iterator<Table> loadTables(SchemaLoader schemaLoader, String keyspace, Collection<String> tableNames) {
+        List<String> names = new ArrayList<>(new TreeSet<>(tableNames));
+        return new Iterator<Table>() {
+            private int position = 0;
+
+            private Table nextTable = null;
+
+            @Override
+            public boolean hasNext() {
+                while(nextTable == null && position < names.size()) {
+                    nextTable = schemaLoader.loadTable(keyspace, names.get(position));
+                    position++;
+                }
+                return nextTable != null;
+            }
+
+            @Override
+            public Table next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Table table = nextTable;
+                nextTable = null;
+                return table;
+            }
+        };
+    }
+}
@@ -1,10 +1,13 @@
 package fr.exensoft.cassandra.schemaupdate.comparator;
 
 
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.AbstractDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaFilter;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.*;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.DropTableDelta;
 import fr.exensoft.cassandra.schemaupdate.model.Column;
@@ -17,7 +20,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Find differences between two tables by returning a delta list.
@@ -36,6 +38,18 @@ public class TableComparator {
     // Default keyspace (target keyspace)
     private Keyspace keyspace;
 
+    // Deltas to keep (null to keep all the deltas)
+    private DeltaFilter filter;
+
+    // Column deltas of the current comparison, by source and target column
+    private Map<Column, List<ColumnAbstractDelta>> columnDeltas;
+
+    // Deltas removed from the delta list at the end of the comparison
+    private Set<AbstractDelta> removedDeltas;
+
+    // Columns of the target table whose position changed
+    private List<Column> movedColumns = Collections.emptyList();
+
     /**
      * Create a TableComparator that will find differences between source table and target table.
      * If source table is null, target table will be created.
@@ -52,6 +66,16 @@ public class TableComparator {
         this.keyspace = (target != null)?target.getKeyspace():source.getKeyspace();
     }
 
+    /**
+     * Only keep the deltas accepted by the filter, index comparison is skipped when index deltas are rejected
+     * @param filter
+     * @return The comparator itself
+     */
+    public TableComparator setFilter(DeltaFilter filter) {
+        this.filter = filter;
+        return this;
+    }
+
     /**
      * Returns the name of the target table if target table is not null.
      * Returns the name of the source table if target table is null.
@@ -65,6 +89,16 @@ public class TableComparator {
         return source.getName();
     }
 
+    /**
+     * Returns the columns of the target table whose position changed in the last comparison (the columns
+     * responsible for the ORDER_CHANGED flag, except created columns that are not at the end of the table).
+     * The smallest set of columns is returned : moving one column in a large table only reports this column.
+     * @return The moved columns, in the order of the target table
+     */
+    public List<Column> getMovedColumns() {
+        return movedColumns;
+    }
+
     /**
      * Find differences between two columns
      *
@@ -76,16 +110,16 @@ public class TableComparator {
 
         //Check if column has been renamed
         if(!sourceColumn.getName().equals(targetColumn.getName())) {
-            deltaList.addDelta(new RenameColumnDelta(keyspace, target, sourceColumn, targetColumn));
+            addDelta(deltaList, new RenameColumnDelta(keyspace, target, sourceColumn, targetColumn));
         }
 
         if(!CQLTypeUtils.equals(sourceColumn.getType(), targetColumn.getType())) {
-            deltaList.addDelta(new AlterTypeColumnDelta(keyspace, target, sourceColumn, targetColumn));
+            addDelta(deltaList, new AlterTypeColumnDelta(keyspace, target, sourceColumn, targetColumn));
         }
 
         CType sourceType = getCType(source, sourceColumn);
         CType targetType = getCType(target, targetColumn);
-        List<ColumnAbstractDelta> columnDelta = getColumnDelta(deltaList, targetColumn);
+        Set<DeltaType> columnDelta = getColumnDelta(targetColumn);
 
         //No need to check if keys are modified (need to recreate the table)
         if(sourceType != targetType) {
@@ -104,7 +138,7 @@ public class TableComparator {
         //  - Apply type compatibility for partitioning keys and normal columns
 
         if(sourceType == CType.PARTITIONING_KEY) {
-            if(hasDelta(columnDelta, DeltaType.ALTER_TYPE)) {
+            if(columnDelta.contains(DeltaType.ALTER_TYPE)) {
                 if(!CQLTypeUtils.isCompatible(sourceColumn.getType(), targetColumn.getType())) {
                     //Incompatible types
                     LOGGER.debug("Table {}, column {}, incompatible types : {} --> {}", target.getName(), targetColumn.getName(), sourceColumn.getType().getType(), targetColumn.getType().getType());
@@ -113,7 +147,7 @@ public class TableComparator {
             }
         }
         else if(targetType == CType.CLUSTERING_KEY) {
-            if(hasDelta(columnDelta, DeltaType.ALTER_TYPE)) {
+            if(columnDelta.contains(DeltaType.ALTER_TYPE)) {
                 if(!CQLTypeUtils.isOrderCompatible(sourceColumn.getType(), targetColumn.getType())) {
                     //Incompatible types
                     LOGGER.debug("Table {}, column {}, order incompatible types : {} --> {}", target.getName(), targetColumn.getName(), sourceColumn.getType().getType(), targetColumn.getType().getType());
@@ -122,7 +156,7 @@ public class TableComparator {
             }
         }
         else {
-            if(hasDelta(columnDelta, DeltaType.ALTER_TYPE)) {
+            if(columnDelta.contains(DeltaType.ALTER_TYPE)) {
                 boolean tIndex = (target.getIndex(targetColumn) != null);
                 boolean sIndex = (source.getIndex(sourceColumn) != null);
                 if(tIndex && sIndex) {
@@ -133,15 +167,15 @@ public class TableComparator {
                             //Incompatible types
                             LOGGER.debug("Table {}, column {}, incompatible types : {} --> {}", target.getName(), targetColumn.getName(), sourceColumn.getType().getType(), targetColumn.getType().getType());
                             clearColumnDelta(deltaList, targetColumn);
-                            deltaList.addDelta(new DropColumnDelta(keyspace, source, sourceColumn));
-                            deltaList.addDelta(new CreateColumnDelta(keyspace, target, targetColumn));
+                            addDelta(deltaList, new DropColumnDelta(keyspace, source, sourceColumn));
+                            addDelta(deltaList, new CreateColumnDelta(keyspace, target, targetColumn));
                             deltaList.addFlag(DeltaFlag.ORDER_CHANGED);
                             deltaList.addFlag(DeltaFlag.DATA_LOSS);
                         }
 
-                        if(!hasDelta(columnDelta, DeltaType.CREATE_INDEX)) {
-                            deltaList.addDelta(new DropIndexDelta(keyspace, source, sourceColumn, targetColumn));
-                            deltaList.addDelta(new CreateIndexDelta(keyspace, target, sourceColumn, targetColumn));
+                        if(!columnDelta.contains(DeltaType.CREATE_INDEX)) {
+                            addDelta(deltaList, new DropIndexDelta(keyspace, source, sourceColumn, targetColumn));
+                            addDelta(deltaList, new CreateIndexDelta(keyspace, target, sourceColumn, targetColumn));
                         }
 
                     }
@@ -151,8 +185,8 @@ public class TableComparator {
                         //Incompatible types
                         LOGGER.debug("Table {}, column {}, incompatible types : {} --> {}", target.getName(), targetColumn.getName(), sourceColumn.getType().getType(), targetColumn.getType().getType());
                         clearColumnDelta(deltaList, targetColumn);
-                        deltaList.addDelta(new DropColumnDelta(keyspace, source, sourceColumn));
-                        deltaList.addDelta(new CreateColumnDelta(keyspace, target, targetColumn));
+                        addDelta(deltaList, new DropColumnDelta(keyspace, source, sourceColumn));
+                        addDelta(deltaList, new CreateColumnDelta(keyspace, target, targetColumn));
                         deltaList.addFlag(DeltaFlag.ORDER_CHANGED);
                         deltaList.addFlag(DeltaFlag.DATA_LOSS);
                     }
@@ -160,11 +194,11 @@ public class TableComparator {
             }
 
             //Renaming a non key column is not allowed
-            if(hasDelta(columnDelta, DeltaType.RENAME)) {
+            if(columnDelta.contains(DeltaType.RENAME)) {
                 LOGGER.debug("Table {}, column {}, can not rename non key columns : {} --> {}", target.getName(), targetColumn.getName(), sourceColumn.getName(), targetColumn.getName());
                 clearColumnDelta(deltaList, targetColumn);
-                deltaList.addDelta(new DropColumnDelta(keyspace, source, sourceColumn));
-                deltaList.addDelta(new CreateColumnDelta(keyspace, target, targetColumn));
+                addDelta(deltaList, new DropColumnDelta(keyspace, source, sourceColumn));
+                addDelta(deltaList, new CreateColumnDelta(keyspace, target, targetColumn));
                 deltaList.addFlag(DeltaFlag.ORDER_CHANGED);
                 deltaList.addFlag(DeltaFlag.DATA_LOSS);
             }
@@ -194,12 +228,12 @@ public class TableComparator {
             }
 
             if(targetIndex == null) {
-                deltaList.addDelta(new DropIndexDelta(keyspace, source, sourceColumn, targetColumn));
+                addDelta(deltaList, new DropIndexDelta(keyspace, source, sourceColumn, targetColumn));
             }
             else if(!targetIndex.getName().equals(sourceIndex.getName())) {
                 //If an index is modified we need to recreate it
-                deltaList.addDelta(new DropIndexDelta(keyspace, source, sourceColumn, targetColumn));
-                deltaList.addDelta(new CreateIndexDelta(keyspace, target, sourceColumn, targetColumn));
+                addDelta(deltaList, new DropIndexDelta(keyspace, source, sourceColumn, targetColumn));
+                addDelta(deltaList, new CreateIndexDelta(keyspace, target, sourceColumn, targetColumn));
             }
         }
 
@@ -219,7 +253,7 @@ public class TableComparator {
             }
 
             if(sourceIndex == null) {
-                deltaList.addDelta(new CreateIndexDelta(keyspace, target, sourceColumn, targetColumn));
+                addDelta(deltaList, new CreateIndexDelta(keyspace, target, sourceColumn, targetColumn));
             }
         }
     }
@@ -229,8 +263,8 @@ public class TableComparator {
      * @param deltaList The DeltaList where differences will be added
      */
     private void compareColumns(DeltaList deltaList) {
-        List<String> deletedColumns = new ArrayList<>();
-        List<String> createdColumns = new ArrayList<>();
+        Set<String> deletedColumns = new LinkedHashSet<>();
+        Set<String> createdColumns = new LinkedHashSet<>();
         Map<String, String> renamedColumns = new HashMap<>();
 
         //Find deleted columns (present in source table but not in target table)
@@ -261,49 +295,50 @@ public class TableComparator {
             }
         }
 
-        //Find order modification on existing columns
-        boolean isSameOrder = true;
+        //Position of the existing columns in the target table
+        List<Column> targetColumns = target.getColumns();
+        Map<Column, Integer> targetPositions = new IdentityHashMap<>();
         boolean hasCreatedColumn = false;
-        int s_i = 0, t_i = 0;
-        while(s_i < source.getColumns().size() && t_i < target.getColumns().size()) {
-            Column sourceColumn = source.getColumns().get(s_i);
-            Column targetColumn = target.getColumns().get(t_i);
-
-            //If source column is a deleted column
-            if(deletedColumns.contains(sourceColumn.getName())) {
-                s_i++;
-                continue;
-            }
-
-            //If target column is a new column
+        boolean isSameOrder = true;
+        for(int i=0;i<targetColumns.size();i++) {
+            Column targetColumn = targetColumns.get(i);
             if(createdColumns.contains(targetColumn.getName())) {
                 hasCreatedColumn = true;
-                t_i++;
-                continue;
             }
             else {
                 //If created columns are not at the end of the table, they change the order of columns
                 if(hasCreatedColumn) {
                     isSameOrder = false;
                 }
+                targetPositions.put(targetColumn, i);
             }
+        }
 
-            String sourceName = sourceColumn.getName();
-
-            //Get new name if source column has been renamed
-            if(renamedColumns.containsKey(sourceName)) {
-                sourceName = renamedColumns.get(sourceName);
+        //Compare existing columns, in the order of the source table
+        List<Column> existingColumns = new ArrayList<>(targetPositions.size());
+        for(Column sourceColumn : source.getColumns()) {
+            //If source column is a deleted column
+            if(deletedColumns.contains(sourceColumn.getName())) {
+                continue;
             }
 
-            if(!sourceName.equals(targetColumn.getName())) {
-                isSameOrder = false;
-                targetColumn = target.getColumn(sourceName);
-            }
+            //Get new name if source column has been renamed
+            Column targetColumn = target.getColumn(renamedColumns.getOrDefault(sourceColumn.getName(), sourceColumn.getName()));
+            existingColumns.add(targetColumn);
 
             compareColumn(deltaList, sourceColumn, targetColumn);
+        }
 
-            s_i++;
-            t_i++;
+        //Find order modification on existing columns
+        movedColumns = findMovedColumns(existingColumns, targetPositions);
+        if(!movedColumns.isEmpty()) {
+            isSameOrder = false;
+        }
+
+        //Remove the deltas replaced during the comparison of the columns
+        if(!removedDeltas.isEmpty()) {
+            deltaList.removeIf(removedDeltas::contains);
+            removedDeltas.clear();
         }
 
         //Add modifications to deltaList
@@ -355,6 +390,62 @@ public class TableComparator {
         }
     }
 
+    /**
+     * Find the columns that moved : the existing columns are taken in the order of the source table, the
+     * longest subsequence of columns already in the order of the target table (patience sorting, O(n log n))
+     * keeps its place, the other columns moved.
+     * @param existingColumns Target columns, in the order of their source columns
+     * @param targetPositions Position of each column in the target table
+     * @return The moved target columns, in the order of the target table
+     */
+    private List<Column> findMovedColumns(List<Column> existingColumns, Map<Column, Integer> targetPositions) {
+        int size = existingColumns.size();
+        int[] positions = new int[size];
+        for(int i=0;i<size;i++) {
+            positions[i] = targetPositions.get(existingColumns.get(i));
+        }
+
+        // tails[k] : index of the smallest last element of an increasing subsequence of length k+1
+        int[] tails = new int[size];
+        int[] previous = new int[size];
+        int length = 0;
+        for(int i=0;i<size;i++) {
+            int low = 0, high = length;
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(positions[tails[middle]] < positions[i]) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            previous[i] = (low > 0) ? tails[low - 1] : -1;
+            tails[low] = i;
+            if(low == length) {
+                length++;
+            }
+        }
+
+        if(length == size) {
+            return Collections.emptyList();
+        }
+
+        boolean[] kept = new boolean[size];
+        for(int i = (length > 0) ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            kept[i] = true;
+        }
+
+        List<Column> moved = new ArrayList<>(size - length);
+        for(int i=0;i<size;i++) {
+            if(!kept[i]) {
+                moved.add(existingColumns.get(i));
+            }
+        }
+        moved.sort(Comparator.comparing(targetPositions::get));
+        return moved;
+    }
+
     /**
      * Compare keys, return true if keys are the same
      * @param sourceKey
@@ -374,7 +465,6 @@ public class TableComparator {
                 source = renamedColumns.get(source);
             }
             if(!source.equals(target)) {
-                System.out.println("DIFF "+source+" <- "+target);
                 return false;
             }
         }
@@ -398,6 +488,14 @@ public class TableComparator {
         }
 
         DeltaList delta = new DeltaList();
+        columnDeltas = new IdentityHashMap<>();
+        movedColumns = Collections.emptyList();
+        removedDeltas = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // Tables with the same fingerprint have no difference
+        if(source != null && target != null && source.getFingerprint().equals(target.getFingerprint())) {
+            return delta;
+        }
 
         if(source == null && target != null) {
             //New table
@@ -409,7 +507,10 @@ public class TableComparator {
         }
         else {
             //Find delta
-            compareIndexes(delta);
+            //Index deltas found by compareIndexes do not change the other deltas
+            if(filter == null || filter.accept(ElementType.COLUMN, DeltaType.CREATE_INDEX, DeltaType.DROP_INDEX)) {
+                compareIndexes(delta);
+            }
             compareColumns(delta);
 
             if(delta.hasFlag(DeltaFlag.NEED_RECREATE)) {
@@ -420,6 +521,10 @@ public class TableComparator {
             }
         }
 
+        if(filter != null) {
+            filter.apply(delta);
+        }
+
         delta.sort();
 
         return delta;
@@ -448,27 +553,56 @@ public class TableComparator {
         }
     }
 
-    private void clearColumnDelta(DeltaList deltaList, Column column) {
-        deltaList.getDeltas().removeAll(getColumnDelta(deltaList, column));
+    /**
+     * Add a column delta to the list and to the buckets of its source and target columns
+     * @param deltaList
+     * @param delta
+     */
+    private void addDelta(DeltaList deltaList, ColumnAbstractDelta delta) {
+        deltaList.addDelta(delta);
+        if(delta.getSource() != null) {
+            columnDeltas.computeIfAbsent(delta.getSource(), column -> new ArrayList<>(2)).add(delta);
+        }
+        if(delta.getTarget() != null && delta.getTarget() != delta.getSource()) {
+            columnDeltas.computeIfAbsent(delta.getTarget(), column -> new ArrayList<>(2)).add(delta);
+        }
     }
 
-    private List<ColumnAbstractDelta> getColumnDelta(DeltaList deltaList, Column column) {
-        return deltaList.getDeltas().stream()
-                .filter(c->c instanceof ColumnAbstractDelta)
-                .map(c->(ColumnAbstractDelta) c)
-                .filter(c->(c.getTarget() == column || c.getSource() == column))
-                .collect(Collectors.toList());
+    /**
+     * Mark the deltas of a column as removed, they are removed from the list at the end of compareColumns
+     * @param deltaList
+     * @param column
+     */
+    private void clearColumnDelta(DeltaList deltaList, Column column) {
+        List<ColumnAbstractDelta> deltas = columnDeltas.remove(column);
+        if(deltas != null) {
+            removedDeltas.addAll(deltas);
+        }
     }
 
-    private boolean hasDelta(List<ColumnAbstractDelta> deltas, DeltaType... types) {
-        return deltas.stream().anyMatch(delta->Arrays.stream(types).anyMatch(type->type.equals(delta.getDeltaType())));
+    /**
+     * Returns the types of the deltas currently attached to the column
+     * @param column
+     * @return
+     */
+    private Set<DeltaType> getColumnDelta(Column column) {
+        Set<DeltaType> types = EnumSet.noneOf(DeltaType.class);
+        List<ColumnAbstractDelta> deltas = columnDeltas.get(column);
+        if(deltas != null) {
+            for(ColumnAbstractDelta delta : deltas) {
+                if(!removedDeltas.contains(delta)) {
+                    types.add(delta.getDeltaType());
+                }
+            }
+        }
+        return types;
     }
 
     private CType getCType(Table table, Column column) {
-        if(table.getPartitioningKeys().contains(column)) {
+        if(table.isPartitioningKey(column)) {
             return CType.PARTITIONING_KEY;
         }
-        else if(table.getClusteringColumns().contains(column)) {
+        else if(table.isClusteringColumn(column)) {
             return CType.CLUSTERING_KEY;
         }
         else {
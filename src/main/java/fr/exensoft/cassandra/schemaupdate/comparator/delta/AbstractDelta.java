@@ -4,6 +4,8 @@ import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
 
+import java.io.IOException;
+
 public abstract class AbstractDelta implements Comparable<AbstractDelta>{
 
     protected Keyspace keyspace;
@@ -24,6 +26,15 @@ public abstract class AbstractDelta implements Comparable<AbstractDelta>{
 
     public abstract String generateCQL();
 
+    /**
+     * Write the CQL query of the delta, deltas generating large queries can write them without building a String
+     * @param output
+     * @throws IOException
+     */
+    public void appendCQL(Appendable output) throws IOException {
+        output.append(generateCQL());
+    }
+
     @Override
     public int compareTo(AbstractDelta o) {
         return Integer.compare(getPriority(), o.getPriority());
@@ -0,0 +1,101 @@
+package fr.exensoft.cassandra.schemaupdate.comparator.delta;
+
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Restricts a comparison to some tables and some kinds of delta.
+ *
+ * Comparators skip the tables rejected by the table predicate and the comparisons that can only produce
+ * rejected deltas, the remaining rejected deltas are removed from the results. Flags are not filtered.
+ * By default every table and every delta is accepted.
+ */
+public class DeltaFilter {
+
+    private Predicate<String> tables = table -> true;
+
+    private Set<ElementType> elementTypes = EnumSet.allOf(ElementType.class);
+
+    private Set<DeltaType> deltaTypes = EnumSet.allOf(DeltaType.class);
+
+    /**
+     * Only compare the tables whose name is accepted by the predicate
+     * @param tables
+     * @return The filter itself
+     */
+    public DeltaFilter withTables(Predicate<String> tables) {
+        this.tables = tables;
+        return this;
+    }
+
+    /**
+     * Only keep the deltas of the given elements (index deltas are COLUMN deltas)
+     * @param elementTypes
+     * @return The filter itself
+     */
+    public DeltaFilter withElementTypes(ElementType... elementTypes) {
+        this.elementTypes = EnumSet.noneOf(ElementType.class);
+        this.elementTypes.addAll(Arrays.asList(elementTypes));
+        return this;
+    }
+
+    /**
+     * Only keep the deltas of the given types
+     * @param deltaTypes
+     * @return The filter itself
+     */
+    public DeltaFilter withDeltaTypes(DeltaType... deltaTypes) {
+        this.deltaTypes = EnumSet.noneOf(DeltaType.class);
+        this.deltaTypes.addAll(Arrays.asList(deltaTypes));
+        return this;
+    }
+
+    /**
+     * Check if the table must be compared
+     * @param table Name of the table
+     * @return
+     */
+    public boolean acceptTable(String table) {
+        return tables.test(table);
+    }
+
+    /**
+     * Check if a delta of this element and one of these types can be kept
+     * @param elementType
+     * @param deltaTypes
+     * @return
+     */
+    public boolean accept(ElementType elementType, DeltaType... deltaTypes) {
+        if(!elementTypes.contains(elementType)) {
+            return false;
+        }
+        for(DeltaType deltaType : deltaTypes) {
+            if(this.deltaTypes.contains(deltaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the delta can be kept
+     * @param delta
+     * @return
+     */
+    public boolean accept(AbstractDelta delta) {
+        return elementTypes.contains(delta.getElementType()) && deltaTypes.contains(delta.getDeltaType());
+    }
+
+    /**
+     * Remove the rejected deltas from the list
+     * @param deltaList
+     */
+    public void apply(DeltaList deltaList) {
+        deltaList.removeIf(delta -> !accept(delta));
+    }
+}
@@ -0,0 +1,247 @@
+package fr.exensoft.cassandra.schemaupdate.comparator.delta;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+
+import java.util.*;
+
+/**
+ * Dependency graph of the deltas of a DeltaResult.
+ *
+ * Inside a DeltaList, a delta depends on all the deltas of the previous priority (drop index before
+ * drop column, create table before create index...), deltas with the same priority are independent.
+ * The first deltas of each table depend on the last deltas of the keyspace, tables are independent
+ * from each other and appear as parallel branches.
+ *
+ * The deltas of a same priority share their dependency lists, the graph stays linear in the number
+ * of deltas even when the edges are not.
+ */
+public class DeltaGraph {
+
+    private static class Node {
+        private final AbstractDelta delta;
+        private final String table;
+        private final int level;
+        private List<AbstractDelta> dependencies = Collections.emptyList();
+        private List<AbstractDelta> dependents = Collections.emptyList();
+
+        private Node(AbstractDelta delta, String table, int level) {
+            this.delta = delta;
+            this.table = table;
+            this.level = level;
+        }
+    }
+
+    private final String keyspace;
+
+    private final Map<AbstractDelta, Node> nodes = new IdentityHashMap<>();
+
+    private final List<List<AbstractDelta>> layers = new ArrayList<>();
+
+    private final List<AbstractDelta> deltas = new ArrayList<>();
+
+    public DeltaGraph(DeltaResult deltaResult) {
+        this.keyspace = deltaResult.getKeyspace();
+
+        List<List<AbstractDelta>> keyspaceBuckets = buckets(deltaResult.getKeyspaceDelta());
+        List<AbstractDelta> keyspaceLast = link(keyspaceBuckets, null, 0, Collections.emptyList());
+
+        // Sorted by name so that the graph does not depend on the order of the map
+        Map<String, DeltaList> tablesDelta = new TreeMap<>(deltaResult.getTablesDelta());
+        List<AbstractDelta> tableFirsts = new ArrayList<>();
+        for(Map.Entry<String, DeltaList> entry : tablesDelta.entrySet()) {
+            List<List<AbstractDelta>> tableBuckets = buckets(entry.getValue());
+            if(!tableBuckets.isEmpty()) {
+                tableFirsts.addAll(tableBuckets.get(0));
+                link(tableBuckets, entry.getKey(), keyspaceBuckets.size(), keyspaceLast);
+            }
+        }
+
+        List<AbstractDelta> keyspaceDependents = Collections.unmodifiableList(tableFirsts);
+        for(AbstractDelta delta : keyspaceLast) {
+            nodes.get(delta).dependents = keyspaceDependents;
+        }
+
+        layers.forEach(deltas::addAll);
+    }
+
+    /**
+     * Split a DeltaList in groups of deltas of the same priority
+     * @param deltaList
+     * @return
+     */
+    private List<List<AbstractDelta>> buckets(DeltaList deltaList) {
+        List<List<AbstractDelta>> buckets = new ArrayList<>();
+        List<AbstractDelta> bucket = null;
+        int priority = 0;
+        for(AbstractDelta delta : deltaList.getDeltas()) {
+            if(bucket == null || delta.getPriority() != priority) {
+                bucket = new ArrayList<>();
+                buckets.add(Collections.unmodifiableList(bucket));
+                priority = delta.getPriority();
+            }
+            bucket.add(delta);
+        }
+        return buckets;
+    }
+
+    /**
+     * Create the nodes of a chain of buckets, each bucket depends on the previous one
+     * @param buckets
+     * @param table Name of the table, null for the keyspace
+     * @param firstLevel Level of the first bucket
+     * @param dependencies Dependencies of the first bucket
+     * @return The last bucket of the chain (or the given dependencies if there is no bucket)
+     */
+    private List<AbstractDelta> link(List<List<AbstractDelta>> buckets, String table, int firstLevel, List<AbstractDelta> dependencies) {
+        List<AbstractDelta> previous = dependencies;
+        for(int i=0;i<buckets.size();i++) {
+            List<AbstractDelta> bucket = buckets.get(i);
+            List<AbstractDelta> next = i + 1 < buckets.size() ? buckets.get(i + 1) : Collections.emptyList();
+            int level = firstLevel + i;
+            while(layers.size() <= level) {
+                layers.add(new ArrayList<>());
+            }
+
+            for(AbstractDelta delta : bucket) {
+                Node node = new Node(delta, table, level);
+                node.dependencies = previous;
+                node.dependents = next;
+                if(nodes.put(delta, node) != null) {
+                    throw new SchemaUpdateException(String.format("Delta \"%s\" is present twice in the result", delta));
+                }
+                layers.get(level).add(delta);
+            }
+            previous = bucket;
+        }
+        return previous;
+    }
+
+    private Node node(AbstractDelta delta) {
+        Node node = nodes.get(delta);
+        if(node == null) {
+            throw new SchemaUpdateException(String.format("Delta \"%s\" is not in the graph", delta));
+        }
+        return node;
+    }
+
+    /**
+     * Name of the keyspace
+     * @return
+     */
+    public String getKeyspace() {
+        return keyspace;
+    }
+
+    /**
+     * Returns all the deltas in an order compatible with the dependencies (layer by layer)
+     * @return
+     */
+    public List<AbstractDelta> getDeltas() {
+        return Collections.unmodifiableList(deltas);
+    }
+
+    /**
+     * Returns the deltas that must be applied before the given delta
+     * @param delta
+     * @return
+     */
+    public List<AbstractDelta> getDependencies(AbstractDelta delta) {
+        return node(delta).dependencies;
+    }
+
+    /**
+     * Returns the deltas that can only be applied after the given delta
+     * @param delta
+     * @return
+     */
+    public List<AbstractDelta> getDependents(AbstractDelta delta) {
+        return node(delta).dependents;
+    }
+
+    /**
+     * Returns the name of the table of a delta, null for keyspace deltas
+     * @param delta
+     * @return
+     */
+    public String getTable(AbstractDelta delta) {
+        return node(delta).table;
+    }
+
+    /**
+     * Returns the groups of deltas that can be applied concurrently, each layer only depends on the previous ones
+     * @return
+     */
+    public List<List<AbstractDelta>> getLayers() {
+        List<List<AbstractDelta>> result = new ArrayList<>();
+        layers.forEach(layer -> result.add(Collections.unmodifiableList(layer)));
+        return result;
+    }
+
+    /**
+     * Returns the length of the longest dependency chain
+     * @return
+     */
+    public int getDepth() {
+        return layers.size();
+    }
+
+    /**
+     * Returns the maximum number of deltas that can be applied at the same time
+     * @return
+     */
+    public int getWidth() {
+        return layers.stream().mapToInt(List::size).max().orElse(0);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Export the graph in the Graphviz dot format, the deltas of each table are grouped in a cluster
+     * @return
+     */
+    public String toDot() {
+        StringBuilder builder = new StringBuilder();
+        Map<AbstractDelta, Integer> ids = new IdentityHashMap<>();
+        Map<String, List<AbstractDelta>> tables = new LinkedHashMap<>();
+        for(AbstractDelta delta : deltas) {
+            ids.put(delta, ids.size());
+            Node node = nodes.get(delta);
+            if(node.table != null) {
+                tables.computeIfAbsent(node.table, table -> new ArrayList<>()).add(delta);
+            }
+        }
+
+        builder.append("digraph \"").append(escape(keyspace)).append("\" {\n");
+        for(AbstractDelta delta : deltas) {
+            if(nodes.get(delta).table == null) {
+                appendNode(builder, "  ", ids.get(delta), delta);
+            }
+        }
+        int cluster = 0;
+        for(Map.Entry<String, List<AbstractDelta>> entry : tables.entrySet()) {
+            builder.append("  subgraph cluster_").append(cluster++).append(" {\n");
+            builder.append("    label=\"").append(escape(entry.getKey())).append("\";\n");
+            for(AbstractDelta delta : entry.getValue()) {
+                appendNode(builder, "    ", ids.get(delta), delta);
+            }
+            builder.append("  }\n");
+        }
+        for(AbstractDelta delta : deltas) {
+            for(AbstractDelta dependent : nodes.get(delta).dependents) {
+                builder.append("  d").append(ids.get(delta)).append(" -> d").append(ids.get(dependent)).append(";\n");
+            }
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    private void appendNode(StringBuilder builder, String indent, int id, AbstractDelta delta) {
+        builder.append(indent).append('d').append(id).append(" [label=\"").append(escape(delta.toString())).append("\"];\n");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -1,23 +1,43 @@
 package fr.exensoft.cassandra.schemaupdate.comparator.delta;
 
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * List of delta
+ *
+ * Deltas are kept in one bucket per priority (see DeltaPriorities), buckets are iterated by increasing
+ * priority and deltas with the same priority keep their insertion order : the list is always sorted.
  */
 public class DeltaList {
 
-    private List<AbstractDelta> deltas;
+    private NavigableMap<Integer, List<AbstractDelta>> deltas;
 
     private Set<DeltaFlag> flags;
 
+    // Number of deltas of each element type and delta type
+    private int[][] counters;
+
+    private int size;
+
+    // Sorted view of the deltas, built on demand
+    private List<AbstractDelta> sortedDeltas;
+
+    // Incremented each time the deltas or the flags change, shared by all the lists of a DeltaResult
+    private AtomicLong modCount = new AtomicLong();
+
+    private boolean sharedModCount;
+
     public DeltaList() {
-        deltas = new LinkedList<>();
-        flags = new HashSet<>();
+        deltas = new TreeMap<>();
+        flags = EnumSet.noneOf(DeltaFlag.class);
+        counters = new int[ElementType.values().length][DeltaType.values().length];
     }
 
     /**
@@ -25,7 +45,42 @@ public class DeltaList {
      * @param delta Delta to add
      */
     public void addDelta(AbstractDelta delta) {
-        deltas.add(delta);
+        deltas.computeIfAbsent(delta.getPriority(), priority -> new ArrayList<>()).add(delta);
+        counters[delta.getElementType().ordinal()][delta.getDeltaType().ordinal()]++;
+        size++;
+        sortedDeltas = null;
+        modCount.incrementAndGet();
+    }
+
+    /**
+     * Remove the deltas matching the predicate
+     * @param filter
+     * @return true if at least one delta has been removed
+     */
+    public boolean removeIf(Predicate<AbstractDelta> filter) {
+        boolean removed = false;
+        Iterator<List<AbstractDelta>> buckets = deltas.values().iterator();
+        while(buckets.hasNext()) {
+            List<AbstractDelta> bucket = buckets.next();
+            Iterator<AbstractDelta> iterator = bucket.iterator();
+            while(iterator.hasNext()) {
+                AbstractDelta delta = iterator.next();
+                if(filter.test(delta)) {
+                    iterator.remove();
+                    counters[delta.getElementType().ordinal()][delta.getDeltaType().ordinal()]--;
+                    size--;
+                    removed = true;
+                }
+            }
+            if(bucket.isEmpty()) {
+                buckets.remove();
+            }
+        }
+        if(removed) {
+            sortedDeltas = null;
+            modCount.incrementAndGet();
+        }
+        return removed;
     }
 
     /**
@@ -33,7 +88,9 @@ public class DeltaList {
      * @param flag
      */
     public void addFlag(DeltaFlag flag) {
-        flags.add(flag);
+        if(flags.add(flag)) {
+            modCount.incrementAndGet();
+        }
     }
 
     /**
@@ -50,12 +107,29 @@ public class DeltaList {
      * @return
      */
     public boolean hasUpdate() {
-        return !deltas.isEmpty();
+        return size > 0;
     }
 
     public boolean hasDelta(ElementType elementType, DeltaType deltaType) {
-        return deltas.stream()
-                .anyMatch(e->e.getDeltaType()==deltaType && e.getElementType() == elementType);
+        return getDeltaCount(elementType, deltaType) > 0;
+    }
+
+    /**
+     * Returns the number of deltas of an element type and a delta type
+     * @param elementType
+     * @param deltaType
+     * @return
+     */
+    public int getDeltaCount(ElementType elementType, DeltaType deltaType) {
+        return counters[elementType.ordinal()][deltaType.ordinal()];
+    }
+
+    /**
+     * Returns the number of deltas
+     * @return
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -64,21 +138,48 @@ public class DeltaList {
     public void clear() {
         flags.clear();
         deltas.clear();
+        for(int[] counter : counters) {
+            Arrays.fill(counter, 0);
+        }
+        size = 0;
+        sortedDeltas = null;
+        modCount.incrementAndGet();
+    }
+
+    /**
+     * Use the modification counter of a DeltaResult, a list can only belong to one DeltaResult
+     * @param modCount
+     */
+    void shareModCount(AtomicLong modCount) {
+        if(sharedModCount && this.modCount != modCount) {
+            throw new SchemaUpdateException("DeltaList already belongs to another DeltaResult");
+        }
+        this.modCount = modCount;
+        sharedModCount = true;
     }
 
     /**
-     * Sort delta contained in the list
+     * Sort delta contained in the list.
+     * Deltas are always sorted by priority, this method is kept for compatibility and does nothing.
      */
     public void sort() {
-        Collections.sort(deltas);
     }
 
     /**
-     * Returns the delta list
+     * Returns the deltas sorted by priority (read only, use addDelta and removeIf to modify the list)
      * @return
      */
     public List<AbstractDelta> getDeltas() {
-        return deltas;
+        List<AbstractDelta> result = sortedDeltas;
+        if(result == null) {
+            List<AbstractDelta> list = new ArrayList<>(size);
+            for(List<AbstractDelta> bucket : deltas.values()) {
+                list.addAll(bucket);
+            }
+            result = Collections.unmodifiableList(list);
+            sortedDeltas = result;
+        }
+        return result;
     }
 
     /**
@@ -86,11 +187,11 @@ public class DeltaList {
      * @return
      */
     public Set<DeltaFlag> getFlags() {
-        return flags;
+        return Collections.unmodifiableSet(flags);
     }
 
     @Override
     public String toString() {
-        return String.format("{deltas:[%s], flags:[%s]}", deltas.toString(), flags.toString());
+        return String.format("{deltas:[%s], flags:[%s]}", getDeltas().toString(), flags.toString());
     }
 }
@@ -1,8 +1,11 @@
 package fr.exensoft.cassandra.schemaupdate.comparator.delta;
 
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DeltaResult {
 
@@ -12,10 +15,35 @@ public class DeltaResult {
 
     private Map<String, DeltaList> tablesDelta;
 
+    // Modification counter shared by all the delta lists of the result
+    private final AtomicLong modCount = new AtomicLong();
+
+    // Aggregated state, computed on demand and rebuilt when one of the delta lists has changed
+    private volatile StampedSummary summary;
+
+    private static class StampedSummary {
+        private final long stamp;
+        private final DeltaSummary summary;
+
+        private StampedSummary(long stamp, DeltaSummary summary) {
+            this.stamp = stamp;
+            this.summary = summary;
+        }
+    }
+
+    /**
+     * The delta lists share a modification counter with the result, a DeltaList can only belong to one DeltaResult
+     * @param keyspace Name of the keyspace
+     * @param keyspaceDelta DeltaList of the keyspace's structure
+     * @param tablesDelta DeltaList of each table, the map must not be modified once the result is created
+     */
     public DeltaResult(String keyspace, DeltaList keyspaceDelta, Map<String, DeltaList> tablesDelta) {
         this.keyspace = keyspace;
         this.keyspaceDelta = keyspaceDelta;
         this.tablesDelta = tablesDelta;
+
+        keyspaceDelta.shareModCount(modCount);
+        tablesDelta.values().forEach(deltaList -> deltaList.shareModCount(modCount));
     }
 
     /**
@@ -23,7 +51,7 @@ public class DeltaResult {
      * @return
      */
     public boolean hasUpdate() {
-        return keyspaceDelta.hasUpdate() || tablesDelta.values().stream().anyMatch(DeltaList::hasUpdate);
+        return getSummary().hasUpdate();
     }
 
     /**
@@ -32,7 +60,65 @@ public class DeltaResult {
      * @return
      */
     public boolean hasFlag(DeltaFlag flag) {
-        return keyspaceDelta.hasFlag(flag) || tablesDelta.values().stream().anyMatch(d->d.hasFlag(flag));
+        return getSummary().hasFlag(flag);
+    }
+
+    /**
+     * Returns the names of the tables that need update operations, sorted by name
+     * @return
+     */
+    public List<String> getDirtyTables() {
+        return getSummary().getDirtyTables();
+    }
+
+    /**
+     * Returns the aggregated state of the result (flags, delta counts, tables to update).
+     * The summary is computed once and kept until one of the delta lists changes.
+     * @return
+     */
+    public DeltaSummary getSummary() {
+        long stamp = modCount.get();
+        StampedSummary result = summary;
+        if(result == null || result.stamp != stamp) {
+            // Stamp read before the build : a change during the build triggers a new build on the next read
+            result = new StampedSummary(stamp, buildSummary());
+            summary = result;
+        }
+        return result.summary;
+    }
+
+
+    private DeltaSummary buildSummary() {
+        Set<DeltaFlag> flags = EnumSet.noneOf(DeltaFlag.class);
+        Map<DeltaType, Integer> deltaCounts = new EnumMap<>(DeltaType.class);
+        List<String> dirtyTables = new ArrayList<>();
+
+        addDeltaList(keyspaceDelta, flags, deltaCounts);
+        for(Map.Entry<String, DeltaList> entry : tablesDelta.entrySet()) {
+            addDeltaList(entry.getValue(), flags, deltaCounts);
+            if(entry.getValue().hasUpdate()) {
+                dirtyTables.add(entry.getKey());
+            }
+        }
+        Collections.sort(dirtyTables);
+
+        return new DeltaSummary(keyspace, flags, deltaCounts, tablesDelta.size(), dirtyTables);
+    }
+
+    private void addDeltaList(DeltaList deltaList, Set<DeltaFlag> flags, Map<DeltaType, Integer> deltaCounts) {
+        flags.addAll(deltaList.getFlags());
+        if(!deltaList.hasUpdate()) {
+            return;
+        }
+        for(DeltaType deltaType : DeltaType.values()) {
+            int count = 0;
+            for(ElementType elementType : ElementType.values()) {
+                count += deltaList.getDeltaCount(elementType, deltaType);
+            }
+            if(count > 0) {
+                deltaCounts.merge(deltaType, count, Integer::sum);
+            }
+        }
     }
 
     /**
@@ -52,10 +138,10 @@ public class DeltaResult {
     }
 
     /**
-     * Returns a map containing the deltaList of each tables of the keyspace
+     * Returns a map containing the deltaList of each tables of the keyspace (read only)
      * @return
      */
     public Map<String, DeltaList> getTablesDelta() {
-        return tablesDelta;
+        return Collections.unmodifiableMap(tablesDelta);
     }
 }
@@ -0,0 +1,100 @@
+package fr.exensoft.cassandra.schemaupdate.comparator.delta;
+
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
+
+import java.util.*;
+
+/**
+ * Aggregated state of a DeltaResult : flags, number of deltas and tables that need updates.
+ * A summary is immutable, it describes the result when it has been created.
+ */
+public class DeltaSummary {
+
+    private final String keyspace;
+
+    private final Set<DeltaFlag> flags;
+
+    private final Map<DeltaType, Integer> deltaCounts;
+
+    private final int deltaCount;
+
+    private final int tableCount;
+
+    private final List<String> dirtyTables;
+
+    DeltaSummary(String keyspace, Set<DeltaFlag> flags, Map<DeltaType, Integer> deltaCounts, int tableCount, List<String> dirtyTables) {
+        this.keyspace = keyspace;
+        this.flags = Collections.unmodifiableSet(flags);
+        this.deltaCounts = Collections.unmodifiableMap(deltaCounts);
+        this.deltaCount = deltaCounts.values().stream().mapToInt(Integer::intValue).sum();
+        this.tableCount = tableCount;
+        this.dirtyTables = Collections.unmodifiableList(dirtyTables);
+    }
+
+    /**
+     * Name of the keyspace
+     * @return
+     */
+    public String getKeyspace() {
+        return keyspace;
+    }
+
+    /**
+     * Returns the flags of the keyspace and of all the tables
+     * @return
+     */
+    public Set<DeltaFlag> getFlags() {
+        return flags;
+    }
+
+    public boolean hasFlag(DeltaFlag flag) {
+        return flags.contains(flag);
+    }
+
+    /**
+     * Returns true if at least one delta has to be applied
+     * @return
+     */
+    public boolean hasUpdate() {
+        return deltaCount > 0;
+    }
+
+    /**
+     * Returns the total number of deltas (keyspace and tables)
+     * @return
+     */
+    public int getDeltaCount() {
+        return deltaCount;
+    }
+
+    /**
+     * Returns the number of deltas of a type (keyspace and tables)
+     * @param deltaType
+     * @return
+     */
+    public int getDeltaCount(DeltaType deltaType) {
+        return deltaCounts.getOrDefault(deltaType, 0);
+    }
+
+    /**
+     * Returns the number of compared tables
+     * @return
+     */
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    /**
+     * Returns the names of the tables that have at least one delta, sorted by name
+     * @return
+     */
+    public List<String> getDirtyTables() {
+        return dirtyTables;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{keyspace:%s, deltas:%d %s, tables:%d/%d, flags:%s}", keyspace, deltaCount, deltaCounts, dirtyTables.size(), tableCount, flags);
+    }
+}
@@ -1,5 +1,6 @@
 package fr.exensoft.cassandra.schemaupdate.comparator.delta.table;
 
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaPriorities;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
 import fr.exensoft.cassandra.schemaupdate.model.Column;
@@ -7,7 +8,8 @@ import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
 import fr.exensoft.cassandra.schemaupdate.model.Table;
 import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
 
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.util.List;
 
 public class CreateTableDelta extends TableAbstractDelta {
 
@@ -28,20 +30,34 @@ public class CreateTableDelta extends TableAbstractDelta {
     @Override
     public String generateCQL() {
         StringBuilder tableQuery = new StringBuilder();
+        try {
+            appendCQL(tableQuery);
+        }
+        catch (IOException e) {
+            // Not thrown by StringBuilder
+            throw new SchemaUpdateException("Unable to generate CQL", e);
+        }
+        return tableQuery.toString();
+    }
+
+    @Override
+    public void appendCQL(Appendable tableQuery) throws IOException {
         tableQuery.append("CREATE TABLE \"")
                 .append(keyspace.getName())
                 .append("\".\"")
                 .append(target.getName())
                 .append("\" (");
         //Columns description
-        tableQuery.append(target.getColumns().stream().map(this::generateColumnCQL).collect(Collectors.joining(", ")));
+        for(Column column : target.getColumns()) {
+            tableQuery.append('"').append(column.getName()).append("\" ").append(column.getType().getType()).append(", ");
+        }
         //Primary Key
-        tableQuery.append(", PRIMARY KEY (");
+        tableQuery.append("PRIMARY KEY (");
         //Partitioning Key(s)
         if (target.getPartitioningKeys().size() > 1) {
-            tableQuery.append("(")
-                    .append(target.getPartitioningKeys().stream().map(c -> String.format("\"%s\"", c.getName())).collect(Collectors.joining(", ")))
-                    .append(")");
+            tableQuery.append("(");
+            appendNames(tableQuery, target.getPartitioningKeys());
+            tableQuery.append(")");
         } else {
             tableQuery.append("\"")
                     .append(target.getPartitioningKeys().get(0).getName())
@@ -49,8 +65,8 @@ public class CreateTableDelta extends TableAbstractDelta {
         }
         //Clustering Key(s)
         if(!target.getClusteringColumns().isEmpty()) {
-            tableQuery.append(", ")
-                    .append(target.getClusteringColumns().stream().map(c -> String.format("\"%s\"", c.getName())).collect(Collectors.joining(", ")));
+            tableQuery.append(", ");
+            appendNames(tableQuery, target.getClusteringColumns());
         }
         tableQuery.append(")");
         //End of table query
@@ -58,21 +74,32 @@ public class CreateTableDelta extends TableAbstractDelta {
 
         // Clustering Keys Orders ? (when not ASC)
         if(target.getSortOrders().values().stream().anyMatch(SortOrder.DESC::equals)) {
-            tableQuery.append(" WITH CLUSTERING ORDER BY (")
-                    .append(target.getClusteringColumns().stream()
-                            .filter(column->target.getSortOrders().get(column).equals(SortOrder.DESC))
-                            .map(column->String.format("\"%s\" DESC", column.getName()))
-                            .collect(Collectors.joining(", "))
-                    )
-                    .append(")");
+            tableQuery.append(" WITH CLUSTERING ORDER BY (");
+            boolean first = true;
+            for(Column column : target.getClusteringColumns()) {
+                if(target.getSortOrders().get(column).equals(SortOrder.DESC)) {
+                    if(!first) {
+                        tableQuery.append(", ");
+                    }
+                    tableQuery.append('"').append(column.getName()).append("\" DESC");
+                    first = false;
+                }
+            }
+            tableQuery.append(")");
         }
 
         tableQuery.append(";");
-        return tableQuery.toString();
     }
-    private String generateColumnCQL(Column column) {
-        return String.format("\"%s\" %s", column.getName(), column.getType().getType());
+
+    private void appendNames(Appendable tableQuery, List<Column> columns) throws IOException {
+        for(int i=0;i<columns.size();i++) {
+            if(i > 0) {
+                tableQuery.append(", ");
+            }
+            tableQuery.append('"').append(columns.get(i).getName()).append('"');
+        }
     }
+
     @Override
     public String toString() {
         return String.format("Create table \"%s\"", target.getName());
@@ -0,0 +1,393 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.loader.CQLStatementReader.Token;
+import fr.exensoft.cassandra.schemaupdate.loader.CQLStatementReader.TokenType;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.ColumnType;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import fr.exensoft.cassandra.schemaupdate.utils.CQLTypeConverter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * SchemaLoader reading a CQL schema file (for instance the output of cqlsh DESCRIBE KEYSPACE).
+ *
+ * The file is parsed statement by statement on the first call, only CREATE KEYSPACE, CREATE TABLE,
+ * CREATE INDEX and USE statements are used, other statements are ignored.
+ *
+ * This loader allows to compare a keyspace with a schema file without any Cassandra node.
+ */
+public class CQLSchemaLoader implements SchemaLoader {
+
+    /**
+     * Cursor over the tokens of a statement
+     */
+    private static class Statement {
+        private final List<Token> tokens;
+        private final int line;
+        private int index = 0;
+
+        private Statement(List<Token> tokens, int line) {
+            this.tokens = tokens;
+            this.line = line;
+        }
+
+        private boolean hasNext() {
+            return index < tokens.size();
+        }
+
+        private Token peek() {
+            return hasNext() ? tokens.get(index) : null;
+        }
+
+        private Token next() {
+            if(!hasNext()) {
+                throw error("Unexpected end of statement");
+            }
+            return tokens.get(index++);
+        }
+
+        /**
+         * Consume the next token if it is the keyword given in parameter
+         * @param keyword
+         * @return true if the keyword has been consumed
+         */
+        private boolean accept(String keyword) {
+            if(hasNext() && peek().is(keyword)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean accept(char symbol) {
+            if(hasNext() && peek().isSymbol(symbol)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String keyword) {
+            if(!accept(keyword)) {
+                throw error(String.format("%s expected", keyword));
+            }
+        }
+
+        private void expect(char symbol) {
+            if(!accept(symbol)) {
+                throw error(String.format("'%c' expected", symbol));
+            }
+        }
+
+        private String identifier() {
+            Token token = next();
+            if(token.getType() != TokenType.WORD && token.getType() != TokenType.QUOTED_WORD) {
+                throw error(String.format("Identifier expected instead of '%s'", token));
+            }
+            return token.getIdentifier();
+        }
+
+        private SchemaUpdateException error(String message) {
+            String statement = tokens.stream().map(Token::toString).collect(Collectors.joining(" "));
+            return new SchemaUpdateException(String.format("%s in statement ending at line %d : %s", message, line, statement));
+        }
+    }
+
+    private Path path;
+
+    private Reader reader;
+
+    private Map<String, Keyspace> keyspaces;
+
+    // Keyspace selected by the last USE statement
+    private String currentKeyspace;
+
+    /**
+     * @param path CQL file to read
+     */
+    public CQLSchemaLoader(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @param reader CQL statements to read, the reader is consumed on the first call
+     */
+    public CQLSchemaLoader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public List<String> listKeyspaces() {
+        return new ArrayList<>(getKeyspaces().keySet());
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name) {
+        return getKeyspaces().get(name);
+    }
+
+    @Override
+    public List<Table> loadTables(String keyspace_name) {
+        Keyspace keyspace = loadKeyspace(keyspace_name);
+        if(keyspace == null) {
+            return null;
+        }
+        return keyspace.getTables();
+    }
+
+    @Override
+    public Table loadTable(String keyspace_name, String table_name) {
+        Keyspace keyspace = loadKeyspace(keyspace_name);
+        if(keyspace == null) {
+            return null;
+        }
+        return keyspace.getTable(table_name);
+    }
+
+    private synchronized Map<String, Keyspace> getKeyspaces() {
+        if(keyspaces == null) {
+            keyspaces = new LinkedHashMap<>();
+            if(path != null) {
+                try(Reader fileReader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    parse(fileReader);
+                }
+                catch (IOException e) {
+                    throw new SchemaUpdateException(String.format("Unable to read CQL schema %s", path), e);
+                }
+            }
+            else {
+                parse(reader);
+            }
+        }
+        return keyspaces;
+    }
+
+    private void parse(Reader input) {
+        CQLStatementReader statementReader = new CQLStatementReader(input);
+
+        List<Token> tokens;
+        while((tokens = statementReader.nextStatement()) != null) {
+            Statement statement = new Statement(tokens, statementReader.getLine());
+
+            if(statement.accept("USE")) {
+                currentKeyspace = statement.identifier();
+            }
+            else if(statement.accept("CREATE")) {
+                if(statement.accept("KEYSPACE")) {
+                    parseCreateKeyspace(statement);
+                }
+                else if(statement.accept("TABLE") || statement.accept("COLUMNFAMILY")) {
+                    parseCreateTable(statement);
+                }
+                else if(statement.accept("INDEX")) {
+                    parseCreateIndex(statement);
+                }
+            }
+        }
+    }
+
+    private void parseCreateKeyspace(Statement statement) {
+        acceptIfNotExists(statement);
+        String name = statement.identifier();
+        keyspaces.computeIfAbsent(name, Keyspace::new);
+    }
+
+    private void parseCreateTable(Statement statement) {
+        acceptIfNotExists(statement);
+        Keyspace keyspace = getKeyspace(statement);
+        Table table = new Table(statement.identifier());
+
+        List<String> partitioningKeys = new ArrayList<>();
+        List<String> clusteringColumns = new ArrayList<>();
+
+        statement.expect('(');
+        do {
+            if(statement.accept("PRIMARY")) {
+                statement.expect("KEY");
+                parsePrimaryKey(statement, partitioningKeys, clusteringColumns);
+            }
+            else {
+                String columnName = statement.identifier();
+                table.addColumn(new Column(columnName, parseColumnType(statement)));
+                statement.accept("STATIC");
+                if(statement.accept("PRIMARY")) {
+                    statement.expect("KEY");
+                    partitioningKeys.add(columnName);
+                }
+            }
+        } while(statement.accept(','));
+        statement.expect(')');
+
+        partitioningKeys.forEach(table::addPartitioningKey);
+        clusteringColumns.forEach(table::addClusteringColumn);
+
+        // Table options, only clustering order is used
+        if(statement.accept("WITH")) {
+            while(statement.hasNext()) {
+                if(statement.accept("CLUSTERING")) {
+                    statement.expect("ORDER");
+                    statement.expect("BY");
+                    statement.expect('(');
+                    do {
+                        String columnName = statement.identifier();
+                        SortOrder sortOrder = SortOrder.ASC;
+                        if(statement.accept("DESC")) {
+                            sortOrder = SortOrder.DESC;
+                        }
+                        else {
+                            statement.accept("ASC");
+                        }
+                        table.setOrder(columnName, sortOrder);
+                    } while(statement.accept(','));
+                    statement.expect(')');
+                }
+                else {
+                    statement.next();
+                }
+            }
+        }
+
+        if(keyspace.getTable(table.getName()) == null) {
+            keyspace.addTable(table);
+        }
+    }
+
+    /**
+     * Parse the content of PRIMARY KEY ((partitioning keys), clustering columns)
+     * @param statement
+     * @param partitioningKeys
+     * @param clusteringColumns
+     */
+    private void parsePrimaryKey(Statement statement, List<String> partitioningKeys, List<String> clusteringColumns) {
+        statement.expect('(');
+        if(statement.accept('(')) {
+            do {
+                partitioningKeys.add(statement.identifier());
+            } while(statement.accept(','));
+            statement.expect(')');
+        }
+        else {
+            partitioningKeys.add(statement.identifier());
+        }
+
+        while(statement.accept(',')) {
+            clusteringColumns.add(statement.identifier());
+        }
+        statement.expect(')');
+    }
+
+    private ColumnType parseColumnType(Statement statement) {
+        String type = parseType(statement);
+        try {
+            return CQLTypeConverter.cqlToType(type);
+        }
+        catch (SchemaUpdateException e) {
+            throw statement.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Read a column type (for instance map<text, frozen<list<int>>>)
+     * @param statement
+     * @return The type as written in CQL, without whitespaces
+     */
+    private String parseType(Statement statement) {
+        StringBuilder type = new StringBuilder(statement.identifier());
+        if(statement.accept('<')) {
+            type.append('<');
+            int depth = 1;
+            while(depth > 0) {
+                Token token = statement.next();
+                if(token.isSymbol('<')) {
+                    depth++;
+                }
+                else if(token.isSymbol('>')) {
+                    depth--;
+                }
+                type.append(token.getType() == TokenType.SYMBOL ? token.getValue() : token.getIdentifier());
+            }
+        }
+        return type.toString();
+    }
+
+    private void parseCreateIndex(Statement statement) {
+        acceptIfNotExists(statement);
+
+        String name = null;
+        if(statement.hasNext() && !statement.peek().is("ON")) {
+            name = statement.identifier();
+        }
+        statement.expect("ON");
+
+        Keyspace keyspace = getKeyspace(statement);
+        String tableName = statement.identifier();
+        Table table = keyspace.getTable(tableName);
+        if(table == null) {
+            throw statement.error(String.format("Unknown table %s", tableName));
+        }
+
+        statement.expect('(');
+        IndexOption kind = IndexOption.VALUES;
+        String column;
+        Token token = statement.peek();
+        if(token != null && (token.is("KEYS") || token.is("VALUES") || token.is("ENTRIES") || token.is("FULL")) && statement.tokens.size() > statement.index + 1
+                && statement.tokens.get(statement.index + 1).isSymbol('(')) {
+            statement.next();
+            if(token.is("KEYS")) {
+                kind = IndexOption.KEYS;
+            }
+            statement.expect('(');
+            column = statement.identifier();
+            statement.expect(')');
+        }
+        else {
+            column = statement.identifier();
+        }
+        statement.expect(')');
+
+        if(name == null) {
+            // Default name given by Cassandra
+            name = String.format("%s_%s_idx", tableName, column);
+        }
+
+        if(table.getIndex(table.getColumn(column)) == null) {
+            table.addIndex(name, column, kind);
+        }
+    }
+
+    private void acceptIfNotExists(Statement statement) {
+        if(statement.accept("IF")) {
+            statement.expect("NOT");
+            statement.expect("EXISTS");
+        }
+    }
+
+    /**
+     * Read an optional keyspace prefix (keyspace.table) and returns the keyspace to use
+     * @param statement
+     * @return
+     */
+    private Keyspace getKeyspace(Statement statement) {
+        String name = currentKeyspace;
+        if(statement.tokens.size() > statement.index + 1 && statement.tokens.get(statement.index + 1).isSymbol('.')) {
+            name = statement.identifier();
+            statement.expect('.');
+        }
+
+        if(name == null) {
+            throw statement.error("No keyspace selected");
+        }
+        return keyspaces.computeIfAbsent(name, Keyspace::new);
+    }
+}
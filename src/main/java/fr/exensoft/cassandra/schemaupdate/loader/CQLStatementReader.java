@@ -0,0 +1,245 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CQL statements from a character stream, one statement at a time.
+ *
+ * Comments are skipped and each statement is returned as a list of tokens, so only the current
+ * statement is kept in memory.
+ */
+class CQLStatementReader {
+
+    enum TokenType {
+        // Keyword or unquoted identifier
+        WORD,
+        // Double quoted identifier
+        QUOTED_WORD,
+        // Single quoted or dollar quoted string
+        STRING,
+        SYMBOL
+    }
+
+    static class Token {
+        private final TokenType type;
+        private final String value;
+
+        private Token(TokenType type, String value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        TokenType getType() {
+            return type;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        /**
+         * Returns true if the token is the keyword given in parameter (case insensitive)
+         * @param keyword
+         * @return
+         */
+        boolean is(String keyword) {
+            return type == TokenType.WORD && value.equalsIgnoreCase(keyword);
+        }
+
+        boolean isSymbol(char symbol) {
+            return type == TokenType.SYMBOL && value.charAt(0) == symbol;
+        }
+
+        /**
+         * Returns the name designated by this token : unquoted identifiers are case insensitive
+         * @return
+         */
+        String getIdentifier() {
+            return type == TokenType.WORD ? value.toLowerCase() : value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private final static int EOF = -1;
+
+    private Reader reader;
+
+    private int current;
+
+    private boolean started = false;
+
+    private int line = 1;
+
+    CQLStatementReader(Reader reader) {
+        this.reader = reader.markSupported() ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Returns the line of the last read character
+     * @return
+     */
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * Read the next statement
+     * @return The tokens of the statement (without the final semicolon), or null at the end of the stream
+     */
+    List<Token> nextStatement() {
+        try {
+            List<Token> tokens = new ArrayList<>();
+            if(!started) {
+                started = true;
+                read();
+            }
+
+            Token token;
+            while((token = nextToken()) != null) {
+                if(token.isSymbol(';')) {
+                    if(tokens.isEmpty()) {
+                        continue;
+                    }
+                    return tokens;
+                }
+                tokens.add(token);
+            }
+            return tokens.isEmpty() ? null : tokens;
+        }
+        catch (IOException e) {
+            throw new SchemaUpdateException("Unable to read CQL schema", e);
+        }
+    }
+
+    private int read() throws IOException {
+        current = reader.read();
+        if(current == '\n') {
+            line++;
+        }
+        return current;
+    }
+
+    private Token nextToken() throws IOException {
+        skipBlanks();
+
+        if(current == EOF) {
+            return null;
+        }
+
+        if(Character.isLetterOrDigit(current) || current == '_') {
+            StringBuilder word = new StringBuilder();
+            while(current != EOF && (Character.isLetterOrDigit(current) || current == '_')) {
+                word.append((char) current);
+                read();
+            }
+            return new Token(TokenType.WORD, word.toString());
+        }
+
+        if(current == '"' || current == '\'') {
+            int quote = current;
+            return new Token(quote == '"' ? TokenType.QUOTED_WORD : TokenType.STRING, readQuoted(quote));
+        }
+
+        int symbol = current;
+        read();
+        if(symbol == '$' && current == '$') {
+            read();
+            return new Token(TokenType.STRING, readDollarQuoted());
+        }
+        return new Token(TokenType.SYMBOL, String.valueOf((char) symbol));
+    }
+
+    /**
+     * Skip whitespaces and comments (--, // and block comments)
+     * @throws IOException
+     */
+    private void skipBlanks() throws IOException {
+        while(current != EOF) {
+            if(Character.isWhitespace(current)) {
+                read();
+            }
+            else if(current == '-' || current == '/') {
+                int first = current;
+                reader.mark(1);
+                int next = reader.read();
+                if(next == first) {
+                    while(current != EOF && current != '\n') {
+                        read();
+                    }
+                }
+                else if(first == '/' && next == '*') {
+                    read();
+                    int previous = 0;
+                    while(current != EOF && !(previous == '*' && current == '/')) {
+                        previous = current;
+                        read();
+                    }
+                    if(current == EOF) {
+                        throw new SchemaUpdateException(String.format("Unterminated comment at line %d", line));
+                    }
+                    read();
+                }
+                else {
+                    reader.reset();
+                    return;
+                }
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read a quoted value, the quote character is escaped by doubling it
+     * @param quote
+     * @return The unquoted value
+     * @throws IOException
+     */
+    private String readQuoted(int quote) throws IOException {
+        StringBuilder value = new StringBuilder();
+        int startLine = line;
+        read();
+        while(true) {
+            if(current == EOF) {
+                throw new SchemaUpdateException(String.format("Unterminated quoted value at line %d", startLine));
+            }
+            if(current == quote) {
+                read();
+                if(current != quote) {
+                    return value.toString();
+                }
+            }
+            value.append((char) current);
+            read();
+        }
+    }
+
+    private String readDollarQuoted() throws IOException {
+        StringBuilder value = new StringBuilder();
+        int startLine = line;
+        int previous = 0;
+        while(!(previous == '$' && current == '$')) {
+            if(current == EOF) {
+                throw new SchemaUpdateException(String.format("Unterminated quoted value at line %d", startLine));
+            }
+            if(previous != 0) {
+                value.append((char) previous);
+            }
+            previous = current;
+            read();
+        }
+        read();
+        return value.toString();
+    }
+}
@@ -0,0 +1,157 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchemaLoader keeping a snapshot of each loaded keyspace.
+ *
+ * A snapshot is identified by the schema version of the cluster (system.local and system.peers),
+ * it is reused as long as this version does not change. When the nodes of the cluster do not agree on the
+ * schema version, the keyspace is always loaded from the underlying loader.
+ *
+ * Cached keyspaces are shared between callers, they must not be modified.
+ *
+ * The underlying loader must read the schema tables of the cluster (SystemSchemaLoader, LegacySchemaLoader) :
+ * driver metadata is refreshed asynchronously, a ClusterSchemaLoader may still return the previous schema
+ * when the new schema version is read, this schema would then be cached under the new version.
+ */
+public class CachedSchemaLoader implements SchemaLoader {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(CachedSchemaLoader.class);
+
+    private final static String SELECT_LOCAL_VERSION = "SELECT schema_version FROM system.local WHERE key='local'";
+    private final static String SELECT_PEERS_VERSION = "SELECT schema_version FROM system.peers";
+
+    /**
+     * Keyspace loaded for a schema version
+     */
+    private static class Snapshot {
+        private final UUID version;
+        private final Keyspace keyspace;
+        // Loaded tables (null when all the tables are loaded)
+        private final Set<String> tables;
+
+        private Snapshot(UUID version, Keyspace keyspace, Set<String> tables) {
+            this.version = version;
+            this.keyspace = keyspace;
+            this.tables = tables;
+        }
+
+        private boolean isComplete() {
+            return tables == null;
+        }
+    }
+
+    private SchemaLoader schemaLoader;
+
+    private Session session;
+
+    private Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * @param schemaLoader Loader used when there is no valid snapshot
+     * @param session Session used to read the schema version
+     */
+    public CachedSchemaLoader(SchemaLoader schemaLoader, Session session) {
+        this.schemaLoader = schemaLoader;
+        this.session = session;
+    }
+
+    @Override
+    public List<String> listKeyspaces() {
+        return schemaLoader.listKeyspaces();
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name) {
+        UUID version = readSchemaVersion();
+        if(version == null) {
+            LOGGER.debug("No schema agreement, loading keyspace {} without cache", name);
+            snapshots.remove(name);
+            return schemaLoader.loadKeyspace(name);
+        }
+
+        Snapshot snapshot = snapshots.get(name);
+        if(snapshot != null && snapshot.isComplete() && snapshot.version.equals(version)) {
+            return snapshot.keyspace;
+        }
+
+        Keyspace keyspace = schemaLoader.loadKeyspace(name);
+        snapshots.put(name, new Snapshot(version, keyspace, null));
+        return keyspace;
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name, Collection<String> tables) {
+        UUID version = readSchemaVersion();
+        if(version == null) {
+            LOGGER.debug("No schema agreement, loading keyspace {} without cache", name);
+            snapshots.remove(name);
+            return schemaLoader.loadKeyspace(name, tables);
+        }
+
+        Set<String> requestedTables = new HashSet<>(tables);
+
+        Snapshot snapshot = snapshots.get(name);
+        if(snapshot != null && snapshot.version.equals(version)) {
+            if(requestedTables.equals(snapshot.tables)) {
+                return snapshot.keyspace;
+            }
+            if(snapshot.isComplete()) {
+                return snapshot.keyspace == null ? null : snapshot.keyspace.select(requestedTables);
+            }
+        }
+
+        Keyspace keyspace = schemaLoader.loadKeyspace(name, requestedTables);
+        snapshots.put(name, new Snapshot(version, keyspace, requestedTables));
+        return keyspace;
+    }
+
+    @Override
+    public List<Table> loadTables(String keyspace_name) {
+        return schemaLoader.loadTables(keyspace_name);
+    }
+
+    @Override
+    public Table loadTable(String keyspace_name, String table_name) {
+        return schemaLoader.loadTable(keyspace_name, table_name);
+    }
+
+    /**
+     * Remove all the snapshots
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    /**
+     * Returns the schema version shared by all the nodes of the cluster
+     * @return The schema version, or null if nodes do not agree on the schema version
+     */
+    private UUID readSchemaVersion() {
+        Row local = session.execute(SELECT_LOCAL_VERSION).one();
+        if(local == null || local.getUUID("schema_version") == null) {
+            return null;
+        }
+        UUID version = local.getUUID("schema_version");
+
+        ResultSet peers = session.execute(SELECT_PEERS_VERSION);
+        for(Row peer : peers) {
+            UUID peerVersion = peer.getUUID("schema_version");
+            if(peerVersion != null && !peerVersion.equals(version)) {
+                return null;
+            }
+        }
+
+        return version;
+    }
+}
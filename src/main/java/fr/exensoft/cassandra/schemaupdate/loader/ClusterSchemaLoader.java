@@ -3,18 +3,40 @@ package fr.exensoft.cassandra.schemaupdate.loader;
 import com.datastax.driver.core.*;
 import fr.exensoft.cassandra.schemaupdate.model.Column;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.LazyKeyspace;
 import fr.exensoft.cassandra.schemaupdate.model.Table;
 import fr.exensoft.cassandra.schemaupdate.model.type.*;
 import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
 import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ClusterSchemaLoader implements SchemaLoader {
 
+    // Under this number of tables, conversion is done in the calling thread
+    private final static int PARALLEL_THRESHOLD = 16;
+
+    private final static Map<DataType.Name, BasicType> BASIC_TYPES = new EnumMap<>(DataType.Name.class);
+
+    static {
+        for(DataType.Name name : DataType.Name.values()) {
+            for (BasicType type : BasicType.values()) {
+                if (type.getType().equalsIgnoreCase(name.name())) {
+                    BASIC_TYPES.put(name, type);
+                    break;
+                }
+            }
+        }
+    }
+
     private Cluster cluster;
 
+    // Converted collection types
+    private Map<DataType, ColumnType> collectionTypes = new ConcurrentHashMap<>();
+
     public ClusterSchemaLoader(Cluster cluster) {
         this.cluster = cluster;
     }
@@ -35,10 +57,32 @@ public class ClusterSchemaLoader implements SchemaLoader {
             return null;
         }
 
+        // Tables are converted when they are requested
+        List<String> tableNames = keyspaceMetadata.getTables().stream()
+                .map(TableMetadata::getName)
+                .collect(Collectors.toList());
+
+        return new LazyKeyspace(keyspaceMetadata.getName(), tableNames, tableName -> {
+            TableMetadata tableMetadata = keyspaceMetadata.getTable(tableName);
+            return tableMetadata == null ? null : loadTable(tableMetadata);
+        });
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name, Collection<String> tables) {
+        KeyspaceMetadata keyspaceMetadata = cluster.getMetadata().getKeyspace(name);
+        if(keyspaceMetadata == null) {
+            return null;
+        }
+
         Keyspace keyspace = new Keyspace(keyspaceMetadata.getName());
 
-        // Load tables
-        loadTables(keyspaceMetadata).forEach(keyspace::addTable);
+        // Only convert requested tables
+        List<TableMetadata> tablesMetadata = new LinkedHashSet<>(tables).stream()
+                .map(keyspaceMetadata::getTable)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        convertTables(tablesMetadata).forEach(keyspace::addTable);
 
         return keyspace;
     }
@@ -68,13 +112,23 @@ public class ClusterSchemaLoader implements SchemaLoader {
             return null;
         }
 
-        return keyspaceMetadata.getTables().stream()
+        return convertTables(keyspaceMetadata.getTables());
+    }
+
+    /**
+     * Convert tables metadata, large keyspaces are converted on the common fork-join pool
+     * @param tablesMetadata
+     * @return The tables, in the same order as the metadata
+     */
+    private List<Table> convertTables(Collection<TableMetadata> tablesMetadata) {
+        Stream<TableMetadata> stream = tablesMetadata.size() < PARALLEL_THRESHOLD ? tablesMetadata.stream() : tablesMetadata.parallelStream();
+        return stream
                 .map(this::loadTable)
                 .collect(Collectors.toList());
     }
 
 
-    private Table loadTable(TableMetadata tableMetadata) {
+    Table loadTable(TableMetadata tableMetadata) {
         Table table = new Table(tableMetadata.getName());
 
         for(ColumnMetadata columnMetadata : tableMetadata.getColumns()) {
@@ -86,9 +140,11 @@ public class ClusterSchemaLoader implements SchemaLoader {
             table.addPartitioningKey(columnMetadata.getName());
         }
 
-        for(int i=0;i<tableMetadata.getClusteringColumns().size();i++) {
-            ColumnMetadata columnMetadata = tableMetadata.getClusteringColumns().get(i);
-            ClusteringOrder clusteringOrder = tableMetadata.getClusteringOrder().get(i);
+        List<ColumnMetadata> clusteringColumns = tableMetadata.getClusteringColumns();
+        List<ClusteringOrder> clusteringOrders = tableMetadata.getClusteringOrder();
+        for(int i=0;i<clusteringColumns.size();i++) {
+            ColumnMetadata columnMetadata = clusteringColumns.get(i);
+            ClusteringOrder clusteringOrder = clusteringOrders.get(i);
 
             SortOrder sortOrder = SortOrder.ASC;
             if(clusteringOrder == ClusteringOrder.DESC) {
@@ -112,31 +168,43 @@ public class ClusterSchemaLoader implements SchemaLoader {
     }
 
     private ColumnType convertType(DataType dataType) {
-        ColumnType result = null;
-        if(dataType.getName().name().equalsIgnoreCase("set")) {
-            result = new SetType(convertType(dataType.getTypeArguments().get(0)));
-        }
-        else if(dataType.getName().name().equalsIgnoreCase("list")) {
-            result = new ListType(convertType(dataType.getTypeArguments().get(0)));
+        if(!dataType.isCollection()) {
+            ColumnType result = BASIC_TYPES.get(dataType.getName());
+            if(result != null && dataType.isFrozen()) {
+                result = FrozenType.of(result);
+            }
+            return result;
         }
-        else if(dataType.getName().name().equalsIgnoreCase("map")) {
-            result = new MapType(convertType(dataType.getTypeArguments().get(0)), convertType(dataType.getTypeArguments().get(1)));
+
+        ColumnType result = collectionTypes.get(dataType);
+        if(result == null) {
+            result = convertCollectionType(dataType);
+            collectionTypes.putIfAbsent(dataType, result);
         }
-        else {
-            // Basic types
-            for (BasicType type : BasicType.values()) {
-                if (type.getType().equalsIgnoreCase(dataType.getName().name())) {
-                    result = type;
-                    break;
-                }
-            }
+        return result;
+    }
+
+    private ColumnType convertCollectionType(DataType dataType) {
+        List<DataType> arguments = dataType.getTypeArguments();
+        ColumnType result;
+        switch(dataType.getName()) {
+            case SET:
+                result = SetType.of(convertType(arguments.get(0)));
+                break;
+            case LIST:
+                result = ListType.of(convertType(arguments.get(0)));
+                break;
+            case MAP:
+                result = MapType.of(convertType(arguments.get(0)), convertType(arguments.get(1)));
+                break;
+            default:
+                result = null;
         }
 
         if(dataType.isFrozen()) {
-            result = new FrozenType(result);
+            result = FrozenType.of(result);
         }
 
-
         return result;
     }
 }
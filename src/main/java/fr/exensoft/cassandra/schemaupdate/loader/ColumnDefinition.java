@@ -0,0 +1,82 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.ColumnType;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Column description read from the system tables
+ */
+class ColumnDefinition {
+
+    enum Kind {
+        PARTITION_KEY,
+        CLUSTERING,
+        REGULAR
+    }
+
+    final String name;
+    final Kind kind;
+    final int position;
+    final SortOrder sortOrder;
+    final ColumnType type;
+
+    ColumnDefinition(String name, Kind kind, int position, SortOrder sortOrder, ColumnType type) {
+        this.name = name;
+        this.kind = kind;
+        this.position = position;
+        this.sortOrder = sortOrder;
+        this.type = type;
+    }
+
+    /**
+     * Build a table from its column definitions
+     * @param name Table name
+     * @param definitions
+     * @return
+     */
+    static Table buildTable(String name, List<ColumnDefinition> definitions) {
+        Table table = new Table(name);
+
+        List<ColumnDefinition> partitioningKeys = new ArrayList<>();
+        List<ColumnDefinition> clusteringColumns = new ArrayList<>();
+        List<ColumnDefinition> regularColumns = new ArrayList<>();
+        for(ColumnDefinition definition : definitions) {
+            if(definition.kind == Kind.PARTITION_KEY) {
+                partitioningKeys.add(definition);
+            }
+            else if(definition.kind == Kind.CLUSTERING) {
+                clusteringColumns.add(definition);
+            }
+            else {
+                regularColumns.add(definition);
+            }
+        }
+        partitioningKeys.sort(Comparator.comparingInt(definition -> definition.position));
+        clusteringColumns.sort(Comparator.comparingInt(definition -> definition.position));
+        regularColumns.sort(Comparator.comparing(definition -> definition.name));
+
+        // Same column order as the driver metadata : partitioning keys, clustering columns then regular columns
+        for(List<ColumnDefinition> group : Arrays.asList(partitioningKeys, clusteringColumns, regularColumns)) {
+            for(ColumnDefinition definition : group) {
+                table.addColumn(new Column(definition.name, definition.type));
+            }
+        }
+
+        for(ColumnDefinition definition : partitioningKeys) {
+            table.addPartitioningKey(definition.name);
+        }
+
+        for(ColumnDefinition definition : clusteringColumns) {
+            table.addClusteringColumn(definition.name, definition.sortOrder);
+        }
+
+        return table;
+    }
+}
@@ -0,0 +1,130 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Loads several keyspaces concurrently with a SchemaLoader.
+ *
+ * At most "parallelism" keyspaces are loaded at the same time, loaded keyspaces are given to the caller
+ * as soon as they are available (in completion order). The SchemaLoader must be thread safe.
+ *
+ * The tables of lazy keyspaces (LazyKeyspace returned by ClusterSchemaLoader for example) are built on demand
+ * unless table building is enabled (see setBuildTables) : all the tables of each keyspace are then built in
+ * the loading thread, tables are fetched and converted concurrently.
+ */
+public class ConcurrentKeyspaceLoader {
+
+    private SchemaLoader schemaLoader;
+
+    private int parallelism;
+
+    private boolean buildTables = false;
+
+    /**
+     * @param schemaLoader Loader used for each keyspace
+     * @param parallelism Maximum number of keyspaces loaded at the same time
+     */
+    public ConcurrentKeyspaceLoader(SchemaLoader schemaLoader, int parallelism) {
+        if(parallelism < 1) {
+            throw new SchemaUpdateException("Parallelism must be greater than 0");
+        }
+        this.schemaLoader = schemaLoader;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Build all the tables of each keyspace in the loading threads (disabled by default). Only useful when
+     * all the tables of the keyspaces are needed, the tables of lazy keyspaces are otherwise built on demand.
+     * @param buildTables
+     * @return The loader itself
+     */
+    public ConcurrentKeyspaceLoader setBuildTables(boolean buildTables) {
+        this.buildTables = buildTables;
+        return this;
+    }
+
+    /**
+     * Load the keyspaces and returns them in completion order
+     * @param names Names of the keyspaces to load
+     * @return Loaded keyspaces by name, keyspaces that do not exist are not in the map
+     */
+    public Map<String, Keyspace> loadKeyspaces(Collection<String> names) {
+        Map<String, Keyspace> keyspaces = new LinkedHashMap<>();
+        loadKeyspaces(names, (name, keyspace) -> {
+            if(keyspace != null) {
+                keyspaces.put(name, keyspace);
+            }
+        });
+        return keyspaces;
+    }
+
+    /**
+     * Load the keyspaces, the consumer is called in the calling thread for each keyspace as soon as it is loaded.
+     * If a keyspace can not be loaded, the remaining loads are cancelled and a SchemaUpdateException is thrown.
+     * @param names Names of the keyspaces to load
+     * @param consumer Called with the name of the keyspace and the keyspace (null if it does not exist)
+     */
+    public void loadKeyspaces(Collection<String> names, BiConsumer<String, Keyspace> consumer) {
+        load(names, schemaLoader::loadKeyspace, parallelism, buildTables, consumer);
+    }
+
+    /**
+     * Run keyspace loads concurrently, at most "parallelism" loads at the same time. Can be used to load
+     * keyspaces from several loaders (one keyspace from several clusters for example).
+     * The consumer is called in the calling thread for each key as soon as its keyspace is loaded.
+     * If a keyspace can not be loaded, the remaining loads are cancelled and a SchemaUpdateException is thrown.
+     * @param keys Keys of the loads (keyspace names, cluster names...), duplicated keys are loaded once
+     * @param loader Loads the keyspace of a key (may return null), must be thread safe
+     * @param parallelism Maximum number of keyspaces loaded at the same time
+     * @param buildTables Build all the tables of each keyspace in the loading threads
+     * @param consumer Called with the key and the loaded keyspace
+     * @param <K> Type of the keys
+     */
+    public static <K> void load(Collection<K> keys, Function<K, Keyspace> loader, int parallelism, boolean buildTables, BiConsumer<K, Keyspace> consumer) {
+        if(parallelism < 1) {
+            throw new SchemaUpdateException("Parallelism must be greater than 0");
+        }
+        Set<K> uniqueKeys = new LinkedHashSet<>(keys);
+        if(uniqueKeys.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, uniqueKeys.size()));
+        try {
+            CompletionService<Map.Entry<K, Keyspace>> completionService = new ExecutorCompletionService<>(executor);
+            for(K key : uniqueKeys) {
+                completionService.submit(() -> {
+                    Keyspace keyspace = loader.apply(key);
+                    if(buildTables && keyspace != null) {
+                        keyspace.getTables();
+                    }
+                    return new AbstractMap.SimpleImmutableEntry<>(key, keyspace);
+                });
+            }
+
+            for(int i=0;i<uniqueKeys.size();i++) {
+                Map.Entry<K, Keyspace> result = completionService.take().get();
+                consumer.accept(result.getKey(), result.getValue());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaUpdateException("Interrupted while loading keyspaces", e);
+        }
+        catch (ExecutionException e) {
+            if(e.getCause() instanceof SchemaUpdateException) {
+                throw (SchemaUpdateException) e.getCause();
+            }
+            throw new SchemaUpdateException("Unable to load keyspaces", e);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import com.datastax.driver.core.*;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import fr.exensoft.cassandra.schemaupdate.utils.CQLTypeConverter;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static fr.exensoft.cassandra.schemaupdate.loader.SystemSchemaLoader.FETCH_SIZE;
+import static fr.exensoft.cassandra.schemaupdate.loader.SystemSchemaLoader.forEachRow;
+
+/**
+ * SchemaLoader reading the schema tables of Cassandra 2.x (system.schema_keyspaces and system.schema_columns).
+ *
+ * All the columns of a keyspace are read with a single query, types and clustering orders are
+ * read from the validators (marshal class names).
+ */
+public class LegacySchemaLoader implements SchemaLoader {
+
+    private final static String SELECT_KEYSPACES = "SELECT keyspace_name FROM system.schema_keyspaces";
+    private final static String SELECT_KEYSPACE = "SELECT keyspace_name FROM system.schema_keyspaces WHERE keyspace_name = ?";
+    private final static String SELECT_COLUMNS = "SELECT columnfamily_name, column_name, type, component_index, validator, index_name, index_options FROM system.schema_columns WHERE keyspace_name = ?";
+    private final static String TABLE_RESTRICTION = " AND columnfamily_name = ?";
+    private final static String TABLES_RESTRICTION = " AND columnfamily_name IN ?";
+
+    private final static String KIND_PARTITION_KEY = "partition_key";
+    private final static String KIND_CLUSTERING = "clustering_key";
+    private final static String KIND_COMPACT_VALUE = "compact_value";
+
+    // "index_keys" key of the index_options JSON map (not "index_keys_and_values", used by entries indexes)
+    private final static Pattern INDEX_KEYS_OPTION = Pattern.compile("\"" + IndexOption.KEYS.getValue() + "\"\\s*:");
+
+    /**
+     * Secondary index read from system.schema_columns
+     */
+    private static class IndexDefinition {
+        private final String name;
+        private final String column;
+        private final IndexOption kind;
+
+        private IndexDefinition(String name, String column, IndexOption kind) {
+            this.name = name;
+            this.column = column;
+            this.kind = kind;
+        }
+    }
+
+    private Session session;
+
+    public LegacySchemaLoader(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public List<String> listKeyspaces() {
+        List<String> keyspaces = new ArrayList<>();
+        forEachRow(execute(SELECT_KEYSPACES), row -> keyspaces.add(row.getString("keyspace_name")));
+        return keyspaces;
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name) {
+        return buildKeyspace(name, loadTables(name));
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name, Collection<String> tables) {
+        ResultSetFuture keyspaceFuture = execute(SELECT_KEYSPACE, name);
+        ResultSetFuture columnsFuture = execute(SELECT_COLUMNS + TABLES_RESTRICTION, name, new ArrayList<>(tables));
+
+        if(keyspaceFuture.getUninterruptibly().one() == null) {
+            return null;
+        }
+        return buildKeyspace(name, buildTables(columnsFuture));
+    }
+
+    @Override
+    public List<Table> loadTables(String keyspace_name) {
+        ResultSetFuture keyspaceFuture = execute(SELECT_KEYSPACE, keyspace_name);
+        ResultSetFuture columnsFuture = execute(SELECT_COLUMNS, keyspace_name);
+
+        if(keyspaceFuture.getUninterruptibly().one() == null) {
+            return null;
+        }
+        return buildTables(columnsFuture);
+    }
+
+    @Override
+    public Table loadTable(String keyspace_name, String table_name) {
+        List<Table> tables = buildTables(execute(SELECT_COLUMNS + TABLE_RESTRICTION, keyspace_name, table_name));
+        return tables.isEmpty() ? null : tables.get(0);
+    }
+
+    private Keyspace buildKeyspace(String name, List<Table> tables) {
+        if(tables == null) {
+            return null;
+        }
+
+        Keyspace keyspace = new Keyspace(name);
+        tables.forEach(keyspace::addTable);
+        return keyspace;
+    }
+
+    /**
+     * Build the tables from the rows of system.schema_columns, rows are read only once
+     * @param columnsFuture Columns query
+     * @return The tables, ordered by name
+     */
+    private List<Table> buildTables(ResultSetFuture columnsFuture) {
+        Map<String, List<ColumnDefinition>> columns = new TreeMap<>();
+        Map<String, List<IndexDefinition>> indexes = new HashMap<>();
+
+        forEachRow(columnsFuture, row -> {
+            String tableName = row.getString("columnfamily_name");
+            String kind = row.getString("type");
+            String columnName = row.getString("column_name");
+            List<ColumnDefinition> tableColumns = columns.computeIfAbsent(tableName, name -> new ArrayList<>());
+
+            // Value of compact storage tables without regular column
+            if(KIND_COMPACT_VALUE.equals(kind) && (columnName == null || columnName.isEmpty())) {
+                return;
+            }
+
+            String validator = row.getString("validator");
+            ColumnDefinition.Kind definitionKind = ColumnDefinition.Kind.REGULAR;
+            if(KIND_PARTITION_KEY.equals(kind)) {
+                definitionKind = ColumnDefinition.Kind.PARTITION_KEY;
+            }
+            else if(KIND_CLUSTERING.equals(kind)) {
+                definitionKind = ColumnDefinition.Kind.CLUSTERING;
+            }
+
+            // component_index is null when the partition key has only one column
+            int position = row.isNull("component_index") ? 0 : row.getInt("component_index");
+            SortOrder sortOrder = CQLTypeConverter.isReversed(validator) ? SortOrder.DESC : SortOrder.ASC;
+
+            tableColumns.add(new ColumnDefinition(columnName, definitionKind, position, sortOrder, CQLTypeConverter.validatorToType(validator)));
+
+            String indexName = row.getString("index_name");
+            if(indexName != null) {
+                String indexOptions = row.getString("index_options");
+                IndexOption indexKind = indexOptions != null && INDEX_KEYS_OPTION.matcher(indexOptions).find() ? IndexOption.KEYS : IndexOption.VALUES;
+                indexes.computeIfAbsent(tableName, name -> new ArrayList<>()).add(new IndexDefinition(indexName, columnName, indexKind));
+            }
+        });
+
+        List<Table> tables = new ArrayList<>();
+        for(Map.Entry<String, List<ColumnDefinition>> entry : columns.entrySet()) {
+            Table table = ColumnDefinition.buildTable(entry.getKey(), entry.getValue());
+            for(IndexDefinition index : indexes.getOrDefault(entry.getKey(), Collections.emptyList())) {
+                table.addIndex(index.name, index.column, index.kind);
+            }
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    private ResultSetFuture execute(String query, Object... values) {
+        Statement statement = new SimpleStatement(query, values).setFetchSize(FETCH_SIZE);
+        return session.executeAsync(statement);
+    }
+}
@@ -0,0 +1,215 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.SchemaChangeListenerBase;
+import com.datastax.driver.core.TableMetadata;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchemaLoader keeping the loaded keyspaces up to date with the schema change events of the driver.
+ *
+ * A keyspace is converted from the driver metadata the first time it is loaded, then each table event
+ * only converts the affected table. Keyspaces are replaced (copy on write) instead of being modified, so a
+ * keyspace returned by this loader never changes and must not be modified.
+ *
+ * Keyspaces are converted without blocking the event thread of the driver : the table events received
+ * during the conversion of a keyspace are recorded and applied when the keyspace is published.
+ *
+ * The loader must be registered on the cluster (Cluster.register) to receive the events, driver metadata
+ * must be enabled.
+ */
+public class ListeningSchemaLoader extends SchemaChangeListenerBase implements SchemaLoader {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(ListeningSchemaLoader.class);
+
+    private ClusterSchemaLoader schemaLoader;
+
+    private Map<String, Keyspace> keyspaces = new ConcurrentHashMap<>();
+
+    // Keyspaces being converted, with the table changes received during the conversion
+    private Map<String, PendingLoad> pendingLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Loads in progress of a keyspace, only read and modified inside pendingLoads.compute
+     */
+    private static class PendingLoad {
+        private int loads;
+
+        // The keyspace has been removed during the conversion, it must not be published
+        private boolean removed;
+
+        // Table changes to apply when the keyspace is published (table name and new table, null if removed)
+        private List<Map.Entry<String, Table>> changes = new ArrayList<>();
+    }
+
+    public ListeningSchemaLoader(Cluster cluster) {
+        this.schemaLoader = new ClusterSchemaLoader(cluster);
+    }
+
+    @Override
+    public List<String> listKeyspaces() {
+        return schemaLoader.listKeyspaces();
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name) {
+        Keyspace keyspace = keyspaces.get(name);
+        if(keyspace != null) {
+            return keyspace;
+        }
+
+        // Table events received from now on are recorded until the keyspace is published
+        pendingLoads.compute(name, (keyspaceName, pending) -> {
+            PendingLoad result = pending != null ? pending : new PendingLoad();
+            result.loads++;
+            return result;
+        });
+
+        Keyspace converted = null;
+        try {
+            converted = convertKeyspace(name);
+        }
+        finally {
+            Keyspace loaded = converted;
+            pendingLoads.compute(name, (keyspaceName, pending) -> {
+                if(loaded != null && !pending.removed) {
+                    keyspaces.computeIfAbsent(keyspaceName, key -> applyChanges(loaded, pending.changes));
+                    pending.changes.clear();
+                }
+                pending.loads--;
+                return pending.loads > 0 ? pending : null;
+            });
+        }
+
+        if(converted == null) {
+            return null;
+        }
+        Keyspace published = keyspaces.get(name);
+        return published != null ? published : converted;
+    }
+
+    /**
+     * Convert a keyspace from the driver metadata
+     * @param name
+     * @return The keyspace, or null if it does not exist
+     */
+    private Keyspace convertKeyspace(String name) {
+        List<Table> tables = schemaLoader.loadTables(name);
+        if(tables == null) {
+            return null;
+        }
+
+        Keyspace result = new Keyspace(name);
+        tables.forEach(result::addTable);
+        return result;
+    }
+
+    /**
+     * Apply the table changes received during the conversion of a keyspace
+     * @param keyspace
+     * @param changes
+     * @return
+     */
+    private Keyspace applyChanges(Keyspace keyspace, List<Map.Entry<String, Table>> changes) {
+        Keyspace result = keyspace;
+        for(Map.Entry<String, Table> change : changes) {
+            LOGGER.debug("Updating table {}.{} received during the loading", keyspace.getName(), change.getKey());
+            result = result.withTable(change.getKey(), change.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public List<Table> loadTables(String keyspace_name) {
+        Keyspace keyspace = loadKeyspace(keyspace_name);
+        if(keyspace == null) {
+            return null;
+        }
+        return new ArrayList<>(keyspace.getTables());
+    }
+
+    @Override
+    public Table loadTable(String keyspace_name, String table_name) {
+        Keyspace keyspace = loadKeyspace(keyspace_name);
+        if(keyspace == null) {
+            return null;
+        }
+        return keyspace.getTable(table_name);
+    }
+
+    @Override
+    public void onKeyspaceRemoved(KeyspaceMetadata keyspace) {
+        pendingLoads.compute(keyspace.getName(), (name, pending) -> {
+            keyspaces.remove(name);
+            if(pending != null) {
+                pending.removed = true;
+                pending.changes.clear();
+            }
+            return pending;
+        });
+    }
+
+    @Override
+    public void onTableAdded(TableMetadata table) {
+        replaceTable(table.getKeyspace().getName(), table.getName(), schemaLoader.loadTable(table));
+    }
+
+    @Override
+    public void onTableRemoved(TableMetadata table) {
+        replaceTable(table.getKeyspace().getName(), table.getName(), null);
+    }
+
+    @Override
+    public void onTableChanged(TableMetadata current, TableMetadata previous) {
+        if(!current.getName().equals(previous.getName())) {
+            replaceTable(previous.getKeyspace().getName(), previous.getName(), null);
+        }
+        replaceTable(current.getKeyspace().getName(), current.getName(), schemaLoader.loadTable(current));
+    }
+
+    @Override
+    public void onUnregister(Cluster cluster) {
+        clear();
+    }
+
+    /**
+     * Remove all the loaded keyspaces, the keyspaces being loaded are not kept
+     */
+    public void clear() {
+        for(String name : pendingLoads.keySet()) {
+            pendingLoads.computeIfPresent(name, (keyspaceName, pending) -> {
+                pending.removed = true;
+                pending.changes.clear();
+                return pending;
+            });
+        }
+        keyspaces.clear();
+    }
+
+    /**
+     * Replace a table in a loaded keyspace, the change is recorded if the keyspace is being loaded.
+     * Keyspaces that have not been loaded are ignored.
+     * @param keyspaceName
+     * @param tableName Name of the table to replace
+     * @param table New table, or null if the table has been removed
+     */
+    private void replaceTable(String keyspaceName, String tableName, Table table) {
+        pendingLoads.compute(keyspaceName, (name, pending) -> {
+            Keyspace updated = keyspaces.computeIfPresent(name, (key, keyspace) -> {
+                LOGGER.debug("Updating table {}.{}", keyspaceName, tableName);
+                return keyspace.withTable(tableName, table);
+            });
+            if(updated == null && pending != null) {
+                pending.changes.add(new AbstractMap.SimpleImmutableEntry<>(tableName, table));
+            }
+            return pending;
+        });
+    }
+}
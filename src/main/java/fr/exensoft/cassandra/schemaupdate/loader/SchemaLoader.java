@@ -3,6 +3,7 @@ package fr.exensoft.cassandra.schemaupdate.loader;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
 import fr.exensoft.cassandra.schemaupdate.model.Table;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SchemaLoader {
@@ -20,6 +21,22 @@ public interface SchemaLoader {
      */
     Keyspace loadKeyspace(String name);
 
+    /**
+     * Returns a Keyspace containing only the requested tables (missing tables are ignored).
+     * By default the whole keyspace is loaded and then filtered, loaders able to read only some tables
+     * should override this method.
+     * @param name Name of the keyspace
+     * @param tables Names of the tables to load
+     * @return
+     */
+    default Keyspace loadKeyspace(String name, Collection<String> tables) {
+        Keyspace keyspace = loadKeyspace(name);
+        if(keyspace == null) {
+            return null;
+        }
+        return keyspace.select(tables);
+    }
+
     List<Table> loadTables(String keyspace_name);
 
     Table loadTable(String keyspace_name, String table_name);
@@ -0,0 +1,207 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+import com.datastax.driver.core.*;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import fr.exensoft.cassandra.schemaupdate.utils.CQLTypeConverter;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SchemaLoader reading the system_schema tables (Cassandra 3.0+) directly.
+ *
+ * Only the rows of the requested keyspace are fetched (with paged and asynchronous queries),
+ * the driver metadata is never used so this loader also works with a Cluster built with
+ * metadata disabled.
+ */
+public class SystemSchemaLoader implements SchemaLoader {
+
+    private final static String SELECT_KEYSPACES = "SELECT keyspace_name FROM system_schema.keyspaces";
+    private final static String SELECT_KEYSPACE = "SELECT keyspace_name FROM system_schema.keyspaces WHERE keyspace_name = ?";
+    private final static String SELECT_TABLES = "SELECT table_name FROM system_schema.tables WHERE keyspace_name = ?";
+    private final static String SELECT_COLUMNS = "SELECT table_name, column_name, kind, position, clustering_order, type FROM system_schema.columns WHERE keyspace_name = ?";
+    private final static String SELECT_INDEXES = "SELECT table_name, index_name, options FROM system_schema.indexes WHERE keyspace_name = ?";
+    private final static String TABLE_RESTRICTION = " AND table_name = ?";
+    private final static String TABLES_RESTRICTION = " AND table_name IN ?";
+
+    final static int FETCH_SIZE = 500;
+
+    private final static String KIND_PARTITION_KEY = "partition_key";
+    private final static String KIND_CLUSTERING = "clustering";
+
+    private final static Pattern INDEX_TARGET = Pattern.compile("^(keys|values|entries|full)\\((.+)\\)$");
+
+    private Session session;
+
+    public SystemSchemaLoader(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public List<String> listKeyspaces() {
+        List<String> keyspaces = new ArrayList<>();
+        forEachRow(execute(SELECT_KEYSPACES), row -> keyspaces.add(row.getString("keyspace_name")));
+        return keyspaces;
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name) {
+        return buildKeyspace(name, loadTables(name));
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name, Collection<String> tables) {
+        return buildKeyspace(name, loadTables(name, tables));
+    }
+
+    @Override
+    public List<Table> loadTables(String keyspace_name) {
+        return loadTables(keyspace_name, null);
+    }
+
+    /**
+     * Load the tables of a keyspace
+     * @param keyspace_name Name of the keyspace
+     * @param tableNames Names of the tables to load, all the tables are loaded when null
+     * @return The tables, or null if the keyspace does not exist
+     */
+    private List<Table> loadTables(String keyspace_name, Collection<String> tableNames) {
+        // All queries are sent before reading the first result
+        ResultSetFuture keyspaceFuture = execute(SELECT_KEYSPACE, keyspace_name);
+        ResultSetFuture tablesFuture;
+        ResultSetFuture columnsFuture;
+        ResultSetFuture indexesFuture;
+        if(tableNames == null) {
+            tablesFuture = execute(SELECT_TABLES, keyspace_name);
+            columnsFuture = execute(SELECT_COLUMNS, keyspace_name);
+            indexesFuture = execute(SELECT_INDEXES, keyspace_name);
+        }
+        else {
+            List<String> names = new ArrayList<>(tableNames);
+            tablesFuture = execute(SELECT_TABLES + TABLES_RESTRICTION, keyspace_name, names);
+            columnsFuture = execute(SELECT_COLUMNS + TABLES_RESTRICTION, keyspace_name, names);
+            indexesFuture = execute(SELECT_INDEXES + TABLES_RESTRICTION, keyspace_name, names);
+        }
+
+        if(keyspaceFuture.getUninterruptibly().one() == null) {
+            return null;
+        }
+
+        List<String> names = new ArrayList<>();
+        forEachRow(tablesFuture, row -> names.add(row.getString("table_name")));
+
+        return buildTables(names, columnsFuture, indexesFuture);
+    }
+
+    @Override
+    public Table loadTable(String keyspace_name, String table_name) {
+        ResultSetFuture tablesFuture = execute(SELECT_TABLES + TABLE_RESTRICTION, keyspace_name, table_name);
+        ResultSetFuture columnsFuture = execute(SELECT_COLUMNS + TABLE_RESTRICTION, keyspace_name, table_name);
+        ResultSetFuture indexesFuture = execute(SELECT_INDEXES + TABLE_RESTRICTION, keyspace_name, table_name);
+
+        if(tablesFuture.getUninterruptibly().one() == null) {
+            return null;
+        }
+
+        List<Table> tables = buildTables(Collections.singletonList(table_name), columnsFuture, indexesFuture);
+        return tables.get(0);
+    }
+
+    private Keyspace buildKeyspace(String name, List<Table> tables) {
+        if(tables == null) {
+            return null;
+        }
+
+        Keyspace keyspace = new Keyspace(name);
+        tables.forEach(keyspace::addTable);
+        return keyspace;
+    }
+
+    /**
+     * Build the tables from the rows of system_schema.columns and system_schema.indexes
+     * @param tableNames Names of the tables to build
+     * @param columnsFuture Columns query
+     * @param indexesFuture Indexes query
+     * @return
+     */
+    private List<Table> buildTables(List<String> tableNames, ResultSetFuture columnsFuture, ResultSetFuture indexesFuture) {
+        Map<String, List<ColumnDefinition>> columns = new HashMap<>();
+        forEachRow(columnsFuture, row -> {
+            String kind = row.getString("kind");
+            ColumnDefinition definition = new ColumnDefinition(
+                    row.getString("column_name"),
+                    KIND_PARTITION_KEY.equals(kind) ? ColumnDefinition.Kind.PARTITION_KEY : (KIND_CLUSTERING.equals(kind) ? ColumnDefinition.Kind.CLUSTERING : ColumnDefinition.Kind.REGULAR),
+                    row.getInt("position"),
+                    "desc".equalsIgnoreCase(row.getString("clustering_order")) ? SortOrder.DESC : SortOrder.ASC,
+                    CQLTypeConverter.cqlToType(row.getString("type")));
+            columns.computeIfAbsent(row.getString("table_name"), name -> new ArrayList<>()).add(definition);
+        });
+
+        Map<String, Table> tables = new LinkedHashMap<>();
+        for(String tableName : tableNames) {
+            tables.put(tableName, ColumnDefinition.buildTable(tableName, columns.getOrDefault(tableName, Collections.emptyList())));
+        }
+
+        forEachRow(indexesFuture, row -> {
+            Table table = tables.get(row.getString("table_name"));
+            if(table == null) {
+                return;
+            }
+            String target = row.getMap("options", String.class, String.class).get("target");
+            if(target == null) {
+                return;
+            }
+
+            IndexOption kind = IndexOption.VALUES;
+            Matcher matcher = INDEX_TARGET.matcher(target);
+            if(matcher.matches()) {
+                if("keys".equals(matcher.group(1))) {
+                    kind = IndexOption.KEYS;
+                }
+                target = matcher.group(2);
+            }
+
+            table.addIndex(row.getString("index_name"), unquote(target), kind);
+        });
+
+        return new ArrayList<>(tables.values());
+    }
+
+    /**
+     * Remove the quotes of a case sensitive column name
+     * @param name
+     * @return
+     */
+    private static String unquote(String name) {
+        if(name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+            return name.substring(1, name.length() - 1).replace("\"\"", "\"");
+        }
+        return name;
+    }
+
+    private ResultSetFuture execute(String query, Object... values) {
+        Statement statement = new SimpleStatement(query, values).setFetchSize(FETCH_SIZE);
+        return session.executeAsync(statement);
+    }
+
+    /**
+     * Iterate over all the rows of a query, the next page is fetched in background while
+     * the current page is consumed
+     * @param future The query
+     * @param consumer
+     */
+    static void forEachRow(ResultSetFuture future, Consumer<Row> consumer) {
+        ResultSet resultSet = future.getUninterruptibly();
+        for(Row row : resultSet) {
+            if(resultSet.getAvailableWithoutFetching() == FETCH_SIZE / 2 && !resultSet.isFullyFetched()) {
+                resultSet.fetchMoreResults();
+            }
+            consumer.accept(row);
+        }
+    }
+}
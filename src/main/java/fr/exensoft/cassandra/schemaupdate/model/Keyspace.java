@@ -1,7 +1,9 @@
 package fr.exensoft.cassandra.schemaupdate.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+
+import java.util.*;
+import java.util.stream.Collectors;
 
 public class Keyspace {
 
@@ -9,9 +11,12 @@ public class Keyspace {
 
     private List<Table> tables;
 
+    private Map<String, Table> tablesByName;
+
     public Keyspace(String name) {
         this.name = name;
         this.tables = new ArrayList<>();
+        this.tablesByName = new HashMap<>();
     }
 
 
@@ -19,31 +24,117 @@ public class Keyspace {
         return name;
     }
 
+    /**
+     * Returns the tables of the keyspace (read only, use addTable to add a table)
+     * @return
+     */
     public List<Table> getTables() {
-        return tables;
+        return Collections.unmodifiableList(tables);
+    }
+
+    /**
+     * Returns the names of the tables, without building the tables of a lazy keyspace
+     * @return
+     */
+    public List<String> getTableNames() {
+        return getTables().stream()
+                .map(Table::getName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Check if the keyspace contains a table with the given name
+     * @param table
+     * @return
+     */
+    public boolean hasTable(String table) {
+        return tablesByName.containsKey(table);
     }
 
     public Table getTable(String table) {
-        return tables.stream()
-                .filter(t->t.getName().equals(table))
-                .findFirst()
-                .orElse(null);
+        return tablesByName.get(table);
     }
 
+    /**
+     * Add a new table in the keyspace.
+     * If a table with the same name exists already, a SchemaUpdateException will be thrown.
+     * @param table The new table to add
+     * @return The keyspace itself
+     */
     public Keyspace addTable(Table table) {
+        if(tablesByName.containsKey(table.getName())) {
+            throw new SchemaUpdateException(String.format("Keyspace \"%s\" already has a table with name \"%s\"", name, table.getName()));
+        }
         table.validate();
 
         tables.add(table);
+        tablesByName.put(table.getName(), table);
         table.setKeyspace(this);
         return this;
     }
 
+    /**
+     * Returns a keyspace containing only the requested tables of this keyspace (missing tables are ignored).
+     * Tables are shared and not modified, they still belong to this keyspace.
+     * @param tableNames Names of the tables to keep
+     * @return
+     */
+    public Keyspace select(Collection<String> tableNames) {
+        Set<String> requestedTables = new HashSet<>(tableNames);
+        Keyspace result = new Keyspace(name);
+        for(String tableName : getTableNames()) {
+            if(requestedTables.contains(tableName)) {
+                Table table = getTable(tableName);
+                if(table != null) {
+                    result.addSharedTable(table);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of this keyspace in which a table is replaced, added or removed.
+     * The other tables are shared and not modified, they still belong to this keyspace.
+     * @param tableName Name of the table to replace
+     * @param table New table (added to the copy), or null to remove the table
+     * @return
+     */
+    public Keyspace withTable(String tableName, Table table) {
+        Keyspace result = new Keyspace(name);
+        boolean replaced = false;
+        for(Table current : getTables()) {
+            if(current.getName().equals(tableName)) {
+                replaced = true;
+                if(table != null) {
+                    result.addTable(table);
+                }
+            }
+            else {
+                result.addSharedTable(current);
+            }
+        }
+        if(!replaced && table != null) {
+            result.addTable(table);
+        }
+        return result;
+    }
+
+    /**
+     * Add a table of another keyspace without changing its keyspace
+     * @param table
+     */
+    private void addSharedTable(Table table) {
+        tables.add(table);
+        tablesByName.put(table.getName(), table);
+    }
+
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder();
         result.append("KeySpace ").append(name).append(" :");
 
-        for(Table table : tables) {
+        for(Table table : getTables()) {
             result.append("\n").append(table.toString());
         }
 
@@ -51,6 +142,6 @@ public class Keyspace {
     }
 
     public void validate() {
-        tables.forEach(Table::validate);
+        getTables().forEach(Table::validate);
     }
 }
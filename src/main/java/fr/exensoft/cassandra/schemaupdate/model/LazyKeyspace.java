@@ -0,0 +1,105 @@
+package fr.exensoft.cassandra.schemaupdate.model;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyspace whose tables are built on demand.
+ *
+ * Only the table names are known at creation, each table is built by the table loader the first time
+ * it is requested (getTable or getTables) and then kept. getTableNames and hasTable never build a table.
+ */
+public class LazyKeyspace extends Keyspace {
+
+    private List<String> tableNames;
+
+    private Set<String> tableNameSet = ConcurrentHashMap.newKeySet();
+
+    private Function<String, Table> tableLoader;
+
+    private Map<String, Table> loadedTables = new ConcurrentHashMap<>();
+
+    /**
+     * @param name Keyspace name
+     * @param tableNames Names of the tables of the keyspace
+     * @param tableLoader Function building a table from its name (may return null if the table does not exist anymore)
+     */
+    public LazyKeyspace(String name, Collection<String> tableNames, Function<String, Table> tableLoader) {
+        super(name);
+        this.tableNames = new CopyOnWriteArrayList<>(tableNames);
+        this.tableNameSet.addAll(tableNames);
+        this.tableLoader = tableLoader;
+    }
+
+    @Override
+    public List<String> getTableNames() {
+        return Collections.unmodifiableList(tableNames);
+    }
+
+    @Override
+    public boolean hasTable(String table) {
+        return tableNameSet.contains(table);
+    }
+
+    @Override
+    public Table getTable(String table) {
+        if(!tableNameSet.contains(table)) {
+            return null;
+        }
+        return loadedTables.computeIfAbsent(table, this::buildTable);
+    }
+
+    /**
+     * Returns the tables of the keyspace, all the tables that were not requested yet are built
+     * @return
+     */
+    @Override
+    public List<Table> getTables() {
+        return Collections.unmodifiableList(tableNames.stream()
+                .map(this::getTable)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Add a new table in the keyspace.
+     * If a table with the same name exists already (built or not), a SchemaUpdateException will be thrown.
+     * @param table The new table to add
+     * @return The keyspace itself
+     */
+    @Override
+    public Keyspace addTable(Table table) {
+        table.validate();
+
+        if(!tableNameSet.add(table.getName())) {
+            throw new SchemaUpdateException(String.format("Keyspace \"%s\" already has a table with name \"%s\"", getName(), table.getName()));
+        }
+        loadedTables.put(table.getName(), table);
+        tableNames.add(table.getName());
+        table.setKeyspace(this);
+        return this;
+    }
+
+    /**
+     * Returns true if the table has already been built
+     * @param table
+     * @return
+     */
+    public boolean isLoaded(String table) {
+        return loadedTables.containsKey(table);
+    }
+
+    private Table buildTable(String name) {
+        Table table = tableLoader.apply(name);
+        if(table != null) {
+            table.validate();
+            table.setKeyspace(this);
+        }
+        return table;
+    }
+}
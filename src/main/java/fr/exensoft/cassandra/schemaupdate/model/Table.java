@@ -5,6 +5,9 @@ import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
 import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
 import sun.reflect.generics.tree.BaseType;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 /**
@@ -24,6 +27,18 @@ public class Table {
 
     private List<Index> indexes;
 
+    // Lookup structures, kept in sync with the lists above
+    private Map<String, Column> columnsByName;
+
+    private Set<Column> partitioningKeySet;
+
+    private Set<Column> clusteringColumnSet;
+
+    private Map<Column, Index> indexesByColumn;
+
+    // Cached structural fingerprint, reset when the table is modified
+    private volatile String fingerprint;
+
     private int innerIndex = 0;
 
     private Keyspace keyspace;
@@ -39,6 +54,10 @@ public class Table {
         this.clusteringColumns = new ArrayList<>();
         this.sortOrders = new HashMap<>();
         this.indexes = new ArrayList<>();
+        this.columnsByName = new HashMap<>();
+        this.partitioningKeySet = new HashSet<>();
+        this.clusteringColumnSet = new HashSet<>();
+        this.indexesByColumn = new HashMap<>();
     }
 
     /**
@@ -50,11 +69,11 @@ public class Table {
     }
 
     /**
-     * Returns the columns of the table
+     * Returns the columns of the table (read only, use addColumn to add a column)
      * @return
      */
     public List<Column> getColumns() {
-        return columns;
+        return Collections.unmodifiableList(columns);
     }
 
     /**
@@ -62,7 +81,7 @@ public class Table {
      * @return
      */
     public List<Column> getPartitioningKeys() {
-        return partitioningKeys;
+        return Collections.unmodifiableList(partitioningKeys);
     }
 
     /**
@@ -70,7 +89,7 @@ public class Table {
      * @return
      */
     public List<Column> getClusteringColumns() {
-        return clusteringColumns;
+        return Collections.unmodifiableList(clusteringColumns);
     }
 
     /**
@@ -78,7 +97,7 @@ public class Table {
      * @return
      */
     public List<Index> getIndexes() {
-        return indexes;
+        return Collections.unmodifiableList(indexes);
     }
 
     /**
@@ -113,6 +132,8 @@ public class Table {
         column.setInnerIndex(innerIndex);
         innerIndex++;
         columns.add(column);
+        columnsByName.put(column.getName(), column);
+        invalidateFingerprint();
         return this;
     }
 
@@ -129,6 +150,8 @@ public class Table {
         }
         column.setIndex(partitioningKeys.size());
         partitioningKeys.add(column);
+        partitioningKeySet.add(column);
+        invalidateFingerprint();
         return this;
     }
 
@@ -148,6 +171,8 @@ public class Table {
             sortOrders.put(column, SortOrder.ASC);
         }
         clusteringColumns.add(column);
+        clusteringColumnSet.add(column);
+        invalidateFingerprint();
         return this;
     }
 
@@ -166,6 +191,8 @@ public class Table {
         column.setIndex(clusteringColumns.size());
         sortOrders.put(column, sortOrder);
         clusteringColumns.add(column);
+        clusteringColumnSet.add(column);
+        invalidateFingerprint();
         return this;
     }
 
@@ -202,6 +229,8 @@ public class Table {
         }
 
         indexes.add(index);
+        indexesByColumn.putIfAbsent(column, index);
+        invalidateFingerprint();
         return this;
     }
 
@@ -218,16 +247,84 @@ public class Table {
         }
 
         sortOrders.put(column, sortOrder);
+        invalidateFingerprint();
 
         return this;
     }
 
     /**
-     * Returns the map of clustering columns sort orders
+     * Returns the map of clustering columns sort orders (read only, use setOrder to change a sort order)
      * @return
      */
     public Map<Column, SortOrder> getSortOrders() {
-        return sortOrders;
+        return Collections.unmodifiableMap(sortOrders);
+    }
+
+    /**
+     * Returns a structural fingerprint of the table : a SHA-256 hash of the name, the columns (in order, with
+     * their types), the partitioning key, the clustering columns, the sort orders and the index names.
+     * Two tables with the same fingerprint have no difference for the TableComparator.
+     *
+     * The table is validated before the fingerprint is computed, the fingerprint is cached until the
+     * table is modified.
+     * @return The fingerprint as an hexadecimal string
+     */
+    public String getFingerprint() {
+        String result = fingerprint;
+        if(result == null) {
+            validate();
+
+            StringBuilder description = new StringBuilder();
+            description.append(name).append('\0');
+            for(Column column : columns) {
+                description.append(column.getName()).append('\0')
+                        .append(column.getType().getType()).append('\0');
+                if(isPartitioningKey(column)) {
+                    description.append('P').append(partitioningKeys.indexOf(column));
+                }
+                else if(isClusteringColumn(column)) {
+                    description.append('C').append(clusteringColumns.indexOf(column));
+                }
+                // Sort orders are compared for all the columns, not only the clustering columns
+                SortOrder sortOrder = sortOrders.get(column);
+                if(sortOrder != null) {
+                    description.append('O').append(sortOrder);
+                }
+                description.append('\0');
+                Index index = getIndex(column);
+                if(index != null) {
+                    description.append(index.getName());
+                }
+                description.append('\n');
+            }
+
+            result = digest(description);
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    private void invalidateFingerprint() {
+        fingerprint = null;
+    }
+
+    /**
+     * Returns the hexadecimal SHA-256 hash of a description
+     * @param description
+     * @return
+     */
+    private static String digest(CharSequence description) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder result = new StringBuilder(hash.length * 2);
+            for(byte value : hash) {
+                result.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+            }
+            return result.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new SchemaUpdateException("SHA-256 is not available", e);
+        }
     }
 
     /**
@@ -250,10 +347,15 @@ public class Table {
         sortColumns(partitioningKeys);
     }
 
+    /**
+     * Sort columns, lists that are already sorted are not modified (a validated table can be validated again
+     * while it is read by other threads)
+     * @param columnsToSort
+     */
     private void sortColumns(List<Column> columnsToSort) {
-        columnsToSort.sort((a,b)->{
-            int priorityA = partitioningKeys.contains(a)?3:(clusteringColumns.contains(a)?2:1);
-            int priorityB = partitioningKeys.contains(b)?3:(clusteringColumns.contains(b)?2:1);
+        Comparator<Column> comparator = (a,b)->{
+            int priorityA = getPriority(a);
+            int priorityB = getPriority(b);
             int comparation = -Integer.compare(priorityA, priorityB);
             if(comparation == 0) {
                 if(priorityA > 1) {
@@ -262,7 +364,18 @@ public class Table {
                 return Integer.compare(a.getInnerIndex(), b.getInnerIndex());
             }
             return comparation;
-        });
+        };
+
+        for(int i=1;i<columnsToSort.size();i++) {
+            if(comparator.compare(columnsToSort.get(i-1), columnsToSort.get(i)) > 0) {
+                columnsToSort.sort(comparator);
+                return;
+            }
+        }
+    }
+
+    private int getPriority(Column column) {
+        return partitioningKeySet.contains(column)?3:(clusteringColumnSet.contains(column)?2:1);
     }
 
     /**
@@ -271,10 +384,7 @@ public class Table {
      * @return
      */
     public Column getColumn(String name) {
-        return columns.stream()
-                .filter(c->c.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+        return columnsByName.get(name);
     }
 
     /**
@@ -283,10 +393,25 @@ public class Table {
      * @return
      */
     public Index getIndex(Column column) {
-        return indexes.stream()
-                .filter(i->i.getColumn() == column)
-                .findFirst()
-                .orElse(null);
+        return indexesByColumn.get(column);
+    }
+
+    /**
+     * Check if the column is part of the partitioning key
+     * @param column
+     * @return
+     */
+    public boolean isPartitioningKey(Column column) {
+        return partitioningKeySet.contains(column);
+    }
+
+    /**
+     * Check if the column is a clustering column
+     * @param column
+     * @return
+     */
+    public boolean isClusteringColumn(Column column) {
+        return clusteringColumnSet.contains(column);
     }
 
     /**
@@ -295,8 +420,7 @@ public class Table {
      * @return
      */
     private boolean hasColumn(String name) {
-        return columns.stream()
-                .anyMatch(c->c.getName().equals(name));
+        return columnsByName.containsKey(name);
     }
 
 
@@ -39,4 +39,11 @@ public enum BasicType implements ColumnType{
                 .findFirst()
                 .orElse(null);
     }
+
+    public static BasicType fromType(String type) {
+        return Arrays.stream(values())
+                .filter(basicType->basicType.type.equalsIgnoreCase(type))
+                .findFirst()
+                .orElse(null);
+    }
 }
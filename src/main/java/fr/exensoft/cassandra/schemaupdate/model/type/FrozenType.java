@@ -1,13 +1,27 @@
 package fr.exensoft.cassandra.schemaupdate.model.type;
 
+import java.util.Objects;
+
 public class FrozenType implements ColumnType, OneParameterType{
 
     public final static String VALIDATOR = "org.apache.cassandra.db.marshal.FrozenType";
 
     private ColumnType innerType;
 
+    private int hashCode;
+
     public FrozenType(ColumnType innerType) {
         this.innerType = innerType;
+        this.hashCode = Objects.hash("frozen", innerType);
+    }
+
+    /**
+     * Returns the shared instance of the type (see TypeInterner)
+     * @param innerType
+     * @return
+     */
+    public static FrozenType of(ColumnType innerType) {
+        return TypeInterner.intern(new FrozenType(innerType));
     }
 
     public String getType() {
@@ -21,11 +35,19 @@ public class FrozenType implements ColumnType, OneParameterType{
 
     @Override
     public boolean equals(Object type) {
+        if(this == type) {
+            return true;
+        }
         if(!(type instanceof FrozenType)) {
             return false;
         }
         FrozenType other = (FrozenType) type;
-        return innerType.equals(other.innerType);
+        return hashCode == other.hashCode && Objects.equals(innerType, other.innerType);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 
     @Override
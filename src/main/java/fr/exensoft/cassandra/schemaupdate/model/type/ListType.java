@@ -1,13 +1,27 @@
 package fr.exensoft.cassandra.schemaupdate.model.type;
 
+import java.util.Objects;
+
 public class ListType implements ColumnType, OneParameterType{
 
     public final static String VALIDATOR = "org.apache.cassandra.db.marshal.ListType";
 
     private ColumnType innerType;
 
+    private int hashCode;
+
     public ListType(ColumnType innerType) {
         this.innerType = innerType;
+        this.hashCode = Objects.hash("list", innerType);
+    }
+
+    /**
+     * Returns the shared instance of the type (see TypeInterner)
+     * @param innerType
+     * @return
+     */
+    public static ListType of(ColumnType innerType) {
+        return TypeInterner.intern(new ListType(innerType));
     }
 
     public String getType() {
@@ -26,10 +40,18 @@ public class ListType implements ColumnType, OneParameterType{
 
     @Override
     public boolean equals(Object type) {
+        if(this == type) {
+            return true;
+        }
         if(!(type instanceof ListType)) {
             return false;
         }
         ListType other = (ListType) type;
-        return innerType.equals(other.innerType);
+        return hashCode == other.hashCode && Objects.equals(innerType, other.innerType);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 }
@@ -1,6 +1,6 @@
 package fr.exensoft.cassandra.schemaupdate.model.type;
 
-import fr.exensoft.cassandra.schemaupdate.model.Column;
+import java.util.Objects;
 
 public class MapType implements ColumnType{
 
@@ -10,9 +10,22 @@ public class MapType implements ColumnType{
 
     private ColumnType valueType;
 
+    private int hashCode;
+
     public MapType(ColumnType keyType, ColumnType valueType) {
         this.keyType = keyType;
         this.valueType = valueType;
+        this.hashCode = Objects.hash("map", keyType, valueType);
+    }
+
+    /**
+     * Returns the shared instance of the type (see TypeInterner)
+     * @param keyType
+     * @param valueType
+     * @return
+     */
+    public static MapType of(ColumnType keyType, ColumnType valueType) {
+        return TypeInterner.intern(new MapType(keyType, valueType));
     }
 
     public ColumnType getKeyType() {
@@ -34,10 +47,18 @@ public class MapType implements ColumnType{
 
     @Override
     public boolean equals(Object type) {
+        if(this == type) {
+            return true;
+        }
         if(!(type instanceof MapType)) {
             return false;
         }
         MapType other = (MapType) type;
-        return keyType.equals(other.keyType) && valueType.equals(other.valueType);
+        return hashCode == other.hashCode && Objects.equals(keyType, other.keyType) && Objects.equals(valueType, other.valueType);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 }
@@ -1,13 +1,27 @@
 package fr.exensoft.cassandra.schemaupdate.model.type;
 
+import java.util.Objects;
+
 public class SetType implements ColumnType, OneParameterType{
 
     public final static String VALIDATOR = "org.apache.cassandra.db.marshal.SetType";
 
     private ColumnType innerType;
 
+    private int hashCode;
+
     public SetType(ColumnType innerType) {
         this.innerType = innerType;
+        this.hashCode = Objects.hash("set", innerType);
+    }
+
+    /**
+     * Returns the shared instance of the type (see TypeInterner)
+     * @param innerType
+     * @return
+     */
+    public static SetType of(ColumnType innerType) {
+        return TypeInterner.intern(new SetType(innerType));
     }
 
     public String getType() {
@@ -26,10 +40,18 @@ public class SetType implements ColumnType, OneParameterType{
 
     @Override
     public boolean equals(Object type) {
+        if(this == type) {
+            return true;
+        }
         if(!(type instanceof SetType)) {
             return false;
         }
         SetType other = (SetType) type;
-        return innerType.equals(other.innerType);
+        return hashCode == other.hashCode && Objects.equals(innerType, other.innerType);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 }
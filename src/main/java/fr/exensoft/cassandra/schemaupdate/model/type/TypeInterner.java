@@ -0,0 +1,66 @@
+package fr.exensoft.cassandra.schemaupdate.model.type;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a single instance of each collection type.
+ *
+ * Interned types are built from interned inner types, two structurally equal interned types are the same
+ * object. The static factories of the collection types (ListType.of, SetType.of, MapType.of, FrozenType.of)
+ * return interned types. Basic types are enum constants and are returned as is.
+ */
+public final class TypeInterner {
+
+    private final static Map<ColumnType, ColumnType> TYPES = new ConcurrentHashMap<>();
+
+    private TypeInterner() {
+    }
+
+    /**
+     * Returns the interned instance of a type
+     * @param type
+     * @param <T>
+     * @return The shared instance structurally equal to the type (null if type is null)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ColumnType> T intern(T type) {
+        if(type == null || type instanceof BasicType) {
+            return type;
+        }
+
+        ColumnType interned = TYPES.get(type);
+        if(interned != null) {
+            return (T) interned;
+        }
+
+        // Inner types are interned first so that the shared instance only references shared instances
+        ColumnType candidate = type;
+        if(type instanceof MapType) {
+            MapType mapType = (MapType) type;
+            ColumnType keyType = intern(mapType.getKeyType());
+            ColumnType valueType = intern(mapType.getValueType());
+            if(keyType != mapType.getKeyType() || valueType != mapType.getValueType()) {
+                candidate = new MapType(keyType, valueType);
+            }
+        }
+        else if(type instanceof OneParameterType) {
+            ColumnType innerType = ((OneParameterType) type).getInnerType();
+            ColumnType internedInnerType = intern(innerType);
+            if(internedInnerType != innerType) {
+                if(type instanceof ListType) {
+                    candidate = new ListType(internedInnerType);
+                }
+                else if(type instanceof SetType) {
+                    candidate = new SetType(internedInnerType);
+                }
+                else if(type instanceof FrozenType) {
+                    candidate = new FrozenType(internedInnerType);
+                }
+            }
+        }
+
+        interned = TYPES.putIfAbsent(candidate, candidate);
+        return (T) (interned != null ? interned : candidate);
+    }
+}
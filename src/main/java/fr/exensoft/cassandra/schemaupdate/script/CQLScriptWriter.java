@@ -0,0 +1,195 @@
+package fr.exensoft.cassandra.schemaupdate.script;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.AbstractDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Writes patches as a CQL script that can be executed with cqlsh.
+ *
+ * Queries are written in the order used by SchemaUpdate.applyPatch (keyspace first, then the tables sorted by name),
+ * each part starts with a comment giving its flags. Queries are streamed to the output through a buffer of
+ * bufferSize characters, the script is never built in memory.
+ */
+public class CQLScriptWriter {
+
+    public final static int DEFAULT_BUFFER_SIZE = 8192;
+
+    private List<DeltaResult> patches = new ArrayList<>();
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * Add a patch to the script
+     * @param deltaResult
+     * @return
+     */
+    public CQLScriptWriter addPatch(DeltaResult deltaResult) {
+        patches.add(deltaResult);
+        return this;
+    }
+
+    /**
+     * Set the number of characters buffered before writing to the output
+     * @param bufferSize
+     * @return
+     */
+    public CQLScriptWriter setBufferSize(int bufferSize) {
+        if(bufferSize < 1) {
+            throw new SchemaUpdateException("Buffer size must be greater than 0");
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Write the script in a file (UTF-8), the file is replaced if it exists
+     * @param path
+     */
+    public void write(Path path) {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(channel);
+        }
+        catch (IOException e) {
+            throw new SchemaUpdateException(String.format("Unable to write CQL script %s", path), e);
+        }
+    }
+
+    /**
+     * Write the script in a channel (UTF-8), the channel is not closed
+     * @param channel
+     * @throws IOException
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        write(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1));
+    }
+
+    /**
+     * Write the script, the writer is flushed but not closed
+     * @param writer
+     * @throws IOException
+     */
+    public void write(Writer writer) throws IOException {
+        StatementWriter output = new StatementWriter(new BufferedWriter(writer, bufferSize));
+        boolean first = true;
+        for(DeltaResult patch : patches) {
+            if(!first) {
+                output.newLine();
+            }
+            writePatch(output, patch);
+            first = false;
+        }
+        output.flush();
+    }
+
+    private void writePatch(StatementWriter output, DeltaResult patch) throws IOException {
+        output.comment(String.format("Patch for keyspace \"%s\"", patch.getKeyspace()));
+        if(!patch.hasUpdate()) {
+            output.comment("No update");
+            return;
+        }
+        writeFlags(output, patch.getSummary().getFlags());
+
+        writeDeltaList(output, String.format("Keyspace \"%s\"", patch.getKeyspace()), patch.getKeyspaceDelta());
+
+        Map<String, DeltaList> tablesDelta = new TreeMap<>(patch.getTablesDelta());
+        for(Map.Entry<String, DeltaList> entry : tablesDelta.entrySet()) {
+            writeDeltaList(output, String.format("Table \"%s\"", entry.getKey()), entry.getValue());
+        }
+    }
+
+    private void writeDeltaList(StatementWriter output, String title, DeltaList deltaList) throws IOException {
+        if(!deltaList.hasUpdate() && deltaList.getFlags().isEmpty()) {
+            return;
+        }
+
+        output.newLine();
+        output.comment(title);
+        writeFlags(output, deltaList.getFlags());
+        for(AbstractDelta delta : deltaList.getDeltas()) {
+            output.statement(delta);
+        }
+    }
+
+    private void writeFlags(StatementWriter output, Set<DeltaFlag> flags) throws IOException {
+        if(!flags.isEmpty()) {
+            StringJoiner joiner = new StringJoiner(", ", "Flags : ", "");
+            flags.forEach(flag -> joiner.add(flag.name()));
+            output.comment(joiner.toString());
+        }
+    }
+
+    /**
+     * Writer keeping track of the last character of the current query to terminate it with a single ";"
+     */
+    private static class StatementWriter implements Appendable {
+
+        private final Writer writer;
+
+        private char last;
+
+        private StatementWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void statement(AbstractDelta delta) throws IOException {
+            last = 0;
+            delta.appendCQL(this);
+            if(last != ';') {
+                writer.write(';');
+            }
+            newLine();
+        }
+
+        private void comment(String text) throws IOException {
+            writer.write("-- ");
+            writer.write(text);
+            newLine();
+        }
+
+        private void newLine() throws IOException {
+            writer.write('\n');
+        }
+
+        private void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            writer.append(csq, start, end);
+            for(int i=end-1;i>=start;i--) {
+                if(!Character.isWhitespace(csq.charAt(i))) {
+                    last = csq.charAt(i);
+                    break;
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            writer.write(c);
+            if(!Character.isWhitespace(c)) {
+                last = c;
+            }
+            return this;
+        }
+    }
+}
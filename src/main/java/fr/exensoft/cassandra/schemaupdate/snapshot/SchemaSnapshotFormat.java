@@ -0,0 +1,36 @@
+package fr.exensoft.cassandra.schemaupdate.snapshot;
+
+/**
+ * Constants of the binary schema snapshot format.
+ *
+ * Layout (all integers are big endian) :
+ * <pre>
+ * header     : magic, version, strings offset, types offset, tables offset, directory offset (6 x int)
+ * strings    : count, offsets (count x int, relative to the first string), strings (length int + UTF-8 bytes)
+ * types      : count, types (tag byte + parameters), parameters are indexes of previous types
+ * tables     : table records, see SchemaSnapshotWriter
+ * directory  : keyspace count, keyspaces (name, table count, then table name and record offset for each table,
+ *              tables are sorted by name)
+ * </pre>
+ */
+final class SchemaSnapshotFormat {
+
+    static final int MAGIC = 0x43535355;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 6 * 4;
+
+    static final byte TYPE_BASIC = 0;
+    static final byte TYPE_LIST = 1;
+    static final byte TYPE_SET = 2;
+    static final byte TYPE_MAP = 3;
+    static final byte TYPE_FROZEN = 4;
+
+    static final byte ORDER_NONE = 0;
+    static final byte ORDER_ASC = 1;
+    static final byte ORDER_DESC = 2;
+
+    private SchemaSnapshotFormat() {
+    }
+}
@@ -0,0 +1,299 @@
+package fr.exensoft.cassandra.schemaupdate.snapshot;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.loader.SchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.LazyKeyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.*;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static fr.exensoft.cassandra.schemaupdate.snapshot.SchemaSnapshotFormat.*;
+
+/**
+ * SchemaLoader reading a schema snapshot written by SchemaSnapshotWriter.
+ *
+ * The file is memory-mapped, only the keyspace directory and the type table are decoded when the
+ * snapshot is opened. Loaded keyspaces are LazyKeyspaces : a table is decoded the first time it is requested
+ * from the keyspace, names are decoded once.
+ */
+public class SchemaSnapshotReader implements SchemaLoader {
+
+    private final ByteBuffer buffer;
+
+    private final int stringsStart;
+
+    private final String[] strings;
+
+    private final ColumnType[] types;
+
+    private final int tablesOffset;
+
+    // Keyspace name -> position of the keyspace table count in the directory
+    private final Map<String, Integer> keyspaces = new LinkedHashMap<>();
+
+    /**
+     * Map the snapshot file in memory
+     * @param path
+     */
+    public SchemaSnapshotReader(Path path) {
+        this(map(path));
+    }
+
+    /**
+     * @param buffer Snapshot content
+     */
+    public SchemaSnapshotReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        if(buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new SchemaUpdateException("Invalid schema snapshot");
+        }
+        if(buffer.getInt(4) != VERSION) {
+            throw new SchemaUpdateException(String.format("Unsupported schema snapshot version %d", buffer.getInt(4)));
+        }
+
+        int stringsOffset = buffer.getInt(8);
+        int typesOffset = buffer.getInt(12);
+        tablesOffset = buffer.getInt(16);
+        int directoryOffset = buffer.getInt(20);
+
+        int stringCount = buffer.getInt(stringsOffset);
+        strings = new String[stringCount];
+        stringsStart = stringsOffset + 4 + 4 * stringCount;
+
+        types = readTypes(typesOffset);
+
+        int position = directoryOffset;
+        int keyspaceCount = buffer.getInt(position);
+        position += 4;
+        for(int i=0;i<keyspaceCount;i++) {
+            keyspaces.put(string(buffer.getInt(position)), position + 4);
+            position += 8 + 8 * buffer.getInt(position + 4);
+        }
+    }
+
+    private static ByteBuffer map(Path path) {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new SchemaUpdateException(String.format("Schema snapshot %s is too large", path));
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catch (IOException e) {
+            throw new SchemaUpdateException(String.format("Unable to read schema snapshot %s", path), e);
+        }
+    }
+
+    @Override
+    public List<String> listKeyspaces() {
+        return new ArrayList<>(keyspaces.keySet());
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name) {
+        Integer position = keyspaces.get(name);
+        if(position == null) {
+            return null;
+        }
+
+        // Table name -> table record offset, records are decoded on demand
+        Map<String, Integer> offsets = new LinkedHashMap<>();
+        int tableCount = buffer.getInt(position);
+        for(int i=0;i<tableCount;i++) {
+            offsets.put(string(buffer.getInt(position + 4 + 8 * i)), buffer.getInt(position + 8 + 8 * i));
+        }
+
+        return new LazyKeyspace(name, offsets.keySet(), tableName -> {
+            Integer offset = offsets.get(tableName);
+            return offset == null ? null : readTable(offset);
+        });
+    }
+
+    @Override
+    public Keyspace loadKeyspace(String name, Collection<String> tables) {
+        if(!keyspaces.containsKey(name)) {
+            return null;
+        }
+
+        Keyspace keyspace = new Keyspace(name);
+        for(String tableName : new LinkedHashSet<>(tables)) {
+            Table table = loadTable(name, tableName);
+            if(table != null) {
+                keyspace.addTable(table);
+            }
+        }
+        return keyspace;
+    }
+
+    @Override
+    public List<Table> loadTables(String keyspace_name) {
+        Keyspace keyspace = loadKeyspace(keyspace_name);
+        if(keyspace == null) {
+            return null;
+        }
+        return keyspace.getTables();
+    }
+
+    /**
+     * Decode a single table, the table directory of the keyspace is searched by dichotomy
+     * @param keyspace_name
+     * @param table_name
+     * @return The table, or null if it does not exist in the snapshot
+     */
+    @Override
+    public Table loadTable(String keyspace_name, String table_name) {
+        Integer position = keyspaces.get(keyspace_name);
+        if(position == null) {
+            return null;
+        }
+
+        int low = 0;
+        int high = buffer.getInt(position) - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = position + 4 + 8 * middle;
+            int comparison = string(buffer.getInt(entry)).compareTo(table_name);
+            if(comparison < 0) {
+                low = middle + 1;
+            }
+            else if(comparison > 0) {
+                high = middle - 1;
+            }
+            else {
+                return readTable(buffer.getInt(entry + 4));
+            }
+        }
+        return null;
+    }
+
+    private Table readTable(int offset) {
+        int position = tablesOffset + offset;
+
+        Table table = new Table(string(buffer.getInt(position)));
+        position += 4;
+
+        int columnCount = buffer.getInt(position);
+        position += 4;
+        Column[] columns = new Column[columnCount];
+        byte[] sortOrders = new byte[columnCount];
+        for(int i=0;i<columnCount;i++) {
+            Column column = new Column(string(buffer.getInt(position)), types[buffer.getInt(position + 4)]);
+            sortOrders[i] = buffer.get(position + 8);
+            int oldNameCount = buffer.getInt(position + 9);
+            position += 13;
+            for(int j=0;j<oldNameCount;j++) {
+                column.addOldName(string(buffer.getInt(position)));
+                position += 4;
+            }
+            columns[i] = column;
+            table.addColumn(column);
+        }
+
+        int partitioningKeyCount = buffer.getInt(position);
+        position += 4;
+        for(int i=0;i<partitioningKeyCount;i++) {
+            table.addPartitioningKey(columns[buffer.getInt(position)].getName());
+            position += 4;
+        }
+
+        int clusteringColumnCount = buffer.getInt(position);
+        position += 4;
+        for(int i=0;i<clusteringColumnCount;i++) {
+            table.addClusteringColumn(columns[buffer.getInt(position)].getName());
+            position += 4;
+        }
+
+        for(int i=0;i<columnCount;i++) {
+            if(sortOrders[i] != ORDER_NONE) {
+                table.setOrder(columns[i].getName(), sortOrders[i] == ORDER_DESC ? SortOrder.DESC : SortOrder.ASC);
+            }
+        }
+
+        int indexCount = buffer.getInt(position);
+        position += 4;
+        for(int i=0;i<indexCount;i++) {
+            Column column = columns[buffer.getInt(position + 4)];
+            table.addIndex(string(buffer.getInt(position)), column.getName());
+
+            // Restore the exact options of the index
+            Map<IndexOption, String> options = table.getIndex(column).getOptions();
+            options.clear();
+            int optionCount = buffer.getInt(position + 8);
+            position += 12;
+            for(int j=0;j<optionCount;j++) {
+                options.put(IndexOption.values()[buffer.get(position)], string(buffer.getInt(position + 1)));
+                position += 5;
+            }
+        }
+
+        return table;
+    }
+
+    private ColumnType[] readTypes(int offset) {
+        int count = buffer.getInt(offset);
+        ColumnType[] result = new ColumnType[count];
+
+        int position = offset + 4;
+        for(int i=0;i<count;i++) {
+            byte tag = buffer.get(position);
+            switch(tag) {
+                case TYPE_BASIC:
+                    result[i] = BasicType.values()[buffer.get(position + 1)];
+                    position += 2;
+                    break;
+                case TYPE_LIST:
+                    result[i] = ListType.of(result[buffer.getInt(position + 1)]);
+                    position += 5;
+                    break;
+                case TYPE_SET:
+                    result[i] = SetType.of(result[buffer.getInt(position + 1)]);
+                    position += 5;
+                    break;
+                case TYPE_FROZEN:
+                    result[i] = FrozenType.of(result[buffer.getInt(position + 1)]);
+                    position += 5;
+                    break;
+                case TYPE_MAP:
+                    result[i] = MapType.of(result[buffer.getInt(position + 1)], result[buffer.getInt(position + 5)]);
+                    position += 9;
+                    break;
+                default:
+                    throw new SchemaUpdateException(String.format("Invalid type tag %d in schema snapshot", tag));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a string of the string table, each string is decoded once
+     * @param index
+     * @return
+     */
+    private String string(int index) {
+        String value = strings[index];
+        if(value == null) {
+            int position = stringsStart + buffer.getInt(stringsStart - 4 * (strings.length - index));
+            int length = buffer.getInt(position);
+
+            byte[] bytes = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(position + 4);
+            view.get(bytes);
+
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+}
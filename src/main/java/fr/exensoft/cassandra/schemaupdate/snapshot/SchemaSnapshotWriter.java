@@ -0,0 +1,220 @@
+package fr.exensoft.cassandra.schemaupdate.snapshot;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Index;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.*;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static fr.exensoft.cassandra.schemaupdate.snapshot.SchemaSnapshotFormat.*;
+
+/**
+ * Writes keyspaces in the binary schema snapshot format, the snapshot can then be read with SchemaSnapshotReader.
+ *
+ * Names and types are written only once (string table and type table), each table is written in its own
+ * record so that it can be decoded independently.
+ *
+ * Table record :
+ * <pre>
+ * name, column count, columns (name, type, sort order byte, old name count, old names),
+ * partitioning key count, column positions, clustering column count, column positions,
+ * index count, indexes (name, column position, option count, options (ordinal byte, value))
+ * </pre>
+ */
+public class SchemaSnapshotWriter {
+
+    private List<Keyspace> keyspaces = new ArrayList<>();
+
+    private Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private Map<String, Integer> typeIndexes = new HashMap<>();
+
+    private ByteArrayOutputStream typesBuffer = new ByteArrayOutputStream();
+
+    private DataOutputStream types = new DataOutputStream(typesBuffer);
+
+    /**
+     * Add a keyspace to the snapshot
+     * @param keyspace
+     * @return
+     */
+    public SchemaSnapshotWriter addKeyspace(Keyspace keyspace) {
+        keyspaces.add(keyspace);
+        return this;
+    }
+
+    public void write(Path path) {
+        try(OutputStream output = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(output);
+        }
+        catch (IOException e) {
+            throw new SchemaUpdateException(String.format("Unable to write schema snapshot %s", path), e);
+        }
+    }
+
+    public void write(OutputStream output) throws IOException {
+        // Table records are serialized first to fill the string and type tables
+        ByteArrayOutputStream tablesBuffer = new ByteArrayOutputStream();
+        DataOutputStream tables = new DataOutputStream(tablesBuffer);
+
+        ByteArrayOutputStream directoryBuffer = new ByteArrayOutputStream();
+        DataOutputStream directory = new DataOutputStream(directoryBuffer);
+
+        directory.writeInt(keyspaces.size());
+        for(Keyspace keyspace : keyspaces) {
+            List<Table> sortedTables = new ArrayList<>(keyspace.getTables());
+            sortedTables.sort(Comparator.comparing(Table::getName));
+
+            directory.writeInt(string(keyspace.getName()));
+            directory.writeInt(sortedTables.size());
+            for(Table table : sortedTables) {
+                directory.writeInt(string(table.getName()));
+                directory.writeInt(tables.size());
+                writeTable(tables, table);
+            }
+        }
+
+        byte[] stringsSection = buildStrings();
+
+        DataOutputStream data = new DataOutputStream(output);
+        int stringsOffset = HEADER_SIZE;
+        int typesOffset = stringsOffset + stringsSection.length;
+        int tablesOffset = typesOffset + 4 + types.size();
+        int directoryOffset = tablesOffset + tables.size();
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(stringsOffset);
+        data.writeInt(typesOffset);
+        data.writeInt(tablesOffset);
+        data.writeInt(directoryOffset);
+
+        data.write(stringsSection);
+        data.writeInt(typeIndexes.size());
+        typesBuffer.writeTo(data);
+        tablesBuffer.writeTo(data);
+        directoryBuffer.writeTo(data);
+        data.flush();
+    }
+
+    private void writeTable(DataOutputStream output, Table table) throws IOException {
+        List<Column> columns = table.getColumns();
+        Map<Column, Integer> positions = new IdentityHashMap<>();
+
+        output.writeInt(string(table.getName()));
+        output.writeInt(columns.size());
+        for(Column column : columns) {
+            positions.put(column, positions.size());
+            output.writeInt(string(column.getName()));
+            output.writeInt(type(column.getType()));
+
+            SortOrder sortOrder = table.getSortOrders().get(column);
+            output.writeByte(sortOrder == null ? ORDER_NONE : (sortOrder == SortOrder.DESC ? ORDER_DESC : ORDER_ASC));
+
+            output.writeInt(column.getOldNames().size());
+            for(String oldName : column.getOldNames()) {
+                output.writeInt(string(oldName));
+            }
+        }
+
+        writePositions(output, table.getPartitioningKeys(), positions);
+        writePositions(output, table.getClusteringColumns(), positions);
+
+        output.writeInt(table.getIndexes().size());
+        for(Index index : table.getIndexes()) {
+            output.writeInt(string(index.getName()));
+            output.writeInt(positions.get(index.getColumn()));
+            output.writeInt(index.getOptions().size());
+            for(Map.Entry<IndexOption, String> option : index.getOptions().entrySet()) {
+                output.writeByte(option.getKey().ordinal());
+                output.writeInt(string(option.getValue()));
+            }
+        }
+    }
+
+    private void writePositions(DataOutputStream output, List<Column> columns, Map<Column, Integer> positions) throws IOException {
+        output.writeInt(columns.size());
+        for(Column column : columns) {
+            output.writeInt(positions.get(column));
+        }
+    }
+
+    private int string(String value) {
+        return strings.computeIfAbsent(value, v -> strings.size());
+    }
+
+    /**
+     * Returns the index of a type in the type table, inner types are written before their parent
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    private int type(ColumnType type) throws IOException {
+        String key = type.getType();
+        Integer index = typeIndexes.get(key);
+        if(index != null) {
+            return index;
+        }
+
+        if(type instanceof BasicType) {
+            types.writeByte(TYPE_BASIC);
+            types.writeByte(((BasicType) type).ordinal());
+        }
+        else if(type instanceof MapType) {
+            int keyType = type(((MapType) type).getKeyType());
+            int valueType = type(((MapType) type).getValueType());
+            types.writeByte(TYPE_MAP);
+            types.writeInt(keyType);
+            types.writeInt(valueType);
+        }
+        else if(type instanceof OneParameterType) {
+            int innerType = type(((OneParameterType) type).getInnerType());
+            if(type instanceof ListType) {
+                types.writeByte(TYPE_LIST);
+            }
+            else if(type instanceof SetType) {
+                types.writeByte(TYPE_SET);
+            }
+            else if(type instanceof FrozenType) {
+                types.writeByte(TYPE_FROZEN);
+            }
+            else {
+                throw new SchemaUpdateException(String.format("Unsupported type %s", type));
+            }
+            types.writeInt(innerType);
+        }
+        else {
+            throw new SchemaUpdateException(String.format("Unsupported type %s", type));
+        }
+
+        index = typeIndexes.size();
+        typeIndexes.put(key, index);
+        return index;
+    }
+
+    private byte[] buildStrings() throws IOException {
+        ByteArrayOutputStream valuesBuffer = new ByteArrayOutputStream();
+        DataOutputStream values = new DataOutputStream(valuesBuffer);
+
+        ByteArrayOutputStream sectionBuffer = new ByteArrayOutputStream();
+        DataOutputStream section = new DataOutputStream(sectionBuffer);
+        section.writeInt(strings.size());
+        for(String value : strings.keySet()) {
+            section.writeInt(values.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            values.writeInt(bytes.length);
+            values.write(bytes);
+        }
+        valuesBuffer.writeTo(section);
+        return sectionBuffer.toByteArray();
+    }
+}
@@ -47,27 +47,44 @@ public class CQLTypeConverter {
 
     private static class CQLExpressionParser {
 
-        private final static String PARAMETER_START_DELIMITER = "(";
-        private final static String PARAMETER_END_DELIMITER = ")";
         private final static String PARAMETER_SEPARATOR = ",";
 
+        private final String parameterStartDelimiter;
+        private final String parameterEndDelimiter;
+
         private String input;
         private List<String> tokens;
         private int index;
 
+        /**
+         * Parser for validator expressions : Type(Parameter1,Parameter2)
+         * @param input
+         */
         private CQLExpressionParser(String input) {
+            this(input, '(', ')');
+        }
+
+        /**
+         * Parser for expressions using custom parameter delimiters (CQL types use type<parameter1, parameter2>)
+         * @param input
+         * @param start Parameters start delimiter
+         * @param end Parameters end delimiter
+         */
+        private CQLExpressionParser(String input, char start, char end) {
             this.input = input;
-            this.tokens = tokenize(input);
+            this.parameterStartDelimiter = String.valueOf(start);
+            this.parameterEndDelimiter = String.valueOf(end);
+            this.tokens = tokenize(input, start, end);
         }
 
-        private static List<String> tokenize(String input) {
+        private static List<String> tokenize(String input, char start, char end) {
             List<String> retour = new LinkedList<>();
             StringBuilder tmp = new StringBuilder();
             for(int i=0;i<input.length();i++) {
                 char c = input.charAt(i);
-                if(c == '(' || c == ')' || c == ',') {
+                if(c == start || c == end || c == ',') {
                     if(tmp.length() > 0) {
-                        retour.add(tmp.toString());
+                        retour.add(tmp.toString().trim());
                         tmp.setLength(0);
                     }
                     retour.add(String.valueOf(c));
@@ -77,7 +94,7 @@ public class CQLTypeConverter {
                 }
             }
             if(tmp.length() > 0) {
-                retour.add(tmp.toString());
+                retour.add(tmp.toString().trim());
             }
 
             return retour;
@@ -109,14 +126,14 @@ public class CQLTypeConverter {
             CQLExpression result = new CQLExpression(token);
 
             //Check if expression has parameters
-            if(hasNext() && PARAMETER_START_DELIMITER.equals(nextToken())) {
+            if(hasNext() && parameterStartDelimiter.equals(nextToken())) {
                 index++;
                 do {
                     result.addParameter(readExpression());
                     token = readToken();
                 } while(PARAMETER_SEPARATOR.equals(token));
 
-                if(!PARAMETER_END_DELIMITER.equals(token)) {
+                if(!parameterEndDelimiter.equals(token)) {
                     invalidValidator();
                 }
             }
@@ -139,6 +156,17 @@ public class CQLTypeConverter {
         return convertExpression(expression);
     }
 
+    /**
+     * Convert a CQL type definition (as stored in system_schema.columns, e.g. map<text, frozen<set<int>>>)
+     * to a ColumnType
+     * @param cqlType CQL type definition
+     * @return
+     */
+    public static ColumnType cqlToType(String cqlType) {
+        CQLExpression expression = new CQLExpressionParser(cqlType, '<', '>').parse();
+        return convertCQLExpression(expression);
+    }
+
     public static boolean isReversed(String validator) {
         CQLExpression expression = new CQLExpressionParser(validator).parse();
         return REVERSED_VALIDATOR.equals(expression.value);
@@ -157,28 +185,28 @@ public class CQLTypeConverter {
             if(expression.countParameters() != 2) {
                 throw new SchemaUpdateException("Map requires two type definition");
             }
-            return new MapType(convertExpression(expression.parameters.get(0)), convertExpression(expression.parameters.get(1)));
+            return MapType.of(convertExpression(expression.parameters.get(0)), convertExpression(expression.parameters.get(1)));
         }
 
         if(ListType.VALIDATOR.equals(expression.value)) {
             if(expression.countParameters() != 1) {
                 throw new SchemaUpdateException("List requires a type definition");
             }
-            return new ListType(convertExpression(expression.parameters.get(0)));
+            return ListType.of(convertExpression(expression.parameters.get(0)));
         }
 
         if(SetType.VALIDATOR.equals(expression.value)) {
             if(expression.countParameters() != 1) {
                 throw new SchemaUpdateException("Set requires a type definition");
             }
-            return new SetType(convertExpression(expression.parameters.get(0)));
+            return SetType.of(convertExpression(expression.parameters.get(0)));
         }
 
         if(FrozenType.VALIDATOR.equals(expression.value)) {
             if(expression.countParameters() != 1) {
                 throw new SchemaUpdateException("Frozen requires a type definition");
             }
-            return new FrozenType(convertExpression(expression.parameters.get(0)));
+            return FrozenType.of(convertExpression(expression.parameters.get(0)));
         }
 
         if(REVERSED_VALIDATOR.equals(expression.value)) {
@@ -191,4 +219,41 @@ public class CQLTypeConverter {
         throw new SchemaUpdateException(String.format("Unknown validator %s", expression.value));
     }
 
+    private static ColumnType convertCQLExpression(CQLExpression expression) {
+        String name = expression.value.toLowerCase();
+
+        if(!expression.hasParameters()) {
+            //If expression has no parameter, it's a basic type
+            BasicType type = BasicType.fromType(name);
+            if(type != null) {
+                return type;
+            }
+        }
+
+        switch (name) {
+            case "map":
+                if(expression.countParameters() != 2) {
+                    throw new SchemaUpdateException("Map requires two type definition");
+                }
+                return MapType.of(convertCQLExpression(expression.parameters.get(0)), convertCQLExpression(expression.parameters.get(1)));
+            case "list":
+                if(expression.countParameters() != 1) {
+                    throw new SchemaUpdateException("List requires a type definition");
+                }
+                return ListType.of(convertCQLExpression(expression.parameters.get(0)));
+            case "set":
+                if(expression.countParameters() != 1) {
+                    throw new SchemaUpdateException("Set requires a type definition");
+                }
+                return SetType.of(convertCQLExpression(expression.parameters.get(0)));
+            case "frozen":
+                if(expression.countParameters() != 1) {
+                    throw new SchemaUpdateException("Frozen requires a type definition");
+                }
+                return FrozenType.of(convertCQLExpression(expression.parameters.get(0)));
+            default:
+                throw new SchemaUpdateException(String.format("Unknown type %s", expression.value));
+        }
+    }
+
 }
@@ -3,10 +3,68 @@ package fr.exensoft.cassandra.schemaupdate.utils;
 
 import fr.exensoft.cassandra.schemaupdate.model.type.*;
 
-import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CQLTypeUtils {
 
+    // Basic types that can be altered to each basic type (key : target type)
+    private final static Map<BasicType, Set<BasicType>> COMPATIBLE_TYPES = new EnumMap<>(BasicType.class);
+
+    // Basic types that can be altered to each basic type without changing the order (key : target type)
+    private final static Map<BasicType, Set<BasicType>> ORDER_COMPATIBLE_TYPES = new EnumMap<>(BasicType.class);
+
+    // Results for collection types
+    private final static Map<TypePair, Boolean> COMPATIBLE_CACHE = new ConcurrentHashMap<>();
+    private final static Map<TypePair, Boolean> ORDER_COMPATIBLE_CACHE = new ConcurrentHashMap<>();
+
+    static {
+        for(BasicType target : BasicType.values()) {
+            Set<BasicType> compatible = EnumSet.noneOf(BasicType.class);
+            Set<BasicType> orderCompatible = EnumSet.noneOf(BasicType.class);
+            for(BasicType source : BasicType.values()) {
+                if(isBasicCompatible(source, target)) {
+                    compatible.add(source);
+                }
+                if(isBasicOrderCompatible(source, target)) {
+                    orderCompatible.add(source);
+                }
+            }
+            COMPATIBLE_TYPES.put(target, compatible);
+            ORDER_COMPATIBLE_TYPES.put(target, orderCompatible);
+        }
+    }
+
+    /**
+     * Key of the collection types caches
+     */
+    private final static class TypePair {
+        private final ColumnType source;
+        private final ColumnType target;
+
+        private TypePair(ColumnType source, ColumnType target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof TypePair)) {
+                return false;
+            }
+            TypePair other = (TypePair) o;
+            return source.equals(other.source) && target.equals(other.target);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + target.hashCode();
+        }
+    }
+
     /**
      * Simplify the column type
      * (Varchar is converted to Text)
@@ -28,31 +86,55 @@ public class CQLTypeUtils {
      * @return
      */
     public static boolean isCompatible(ColumnType type1, ColumnType type2) {
+        // Structurally equal interned types (see TypeInterner) are the same object
+        if(type1 == type2) {
+            return true;
+        }
         if((type1 instanceof BasicType) && (type2 instanceof BasicType)) {
-            type1 = simplifyType(type1);
-            type2 = simplifyType(type2);
-
-            if(type1.equals(type2)) {
-                return true;
-            }
+            return COMPATIBLE_TYPES.get(type2).contains(type1);
+        }
+        // Not computed in computeIfAbsent : inner collection types update the same cache
+        TypePair pair = new TypePair(type1, type2);
+        Boolean result = COMPATIBLE_CACHE.get(pair);
+        if(result == null) {
+            result = isCollectionCompatible(type1, type2);
+            COMPATIBLE_CACHE.putIfAbsent(pair, result);
+        }
+        return result;
+    }
 
-            // (ascii, bigint, boolean, decimal, double, float, inet, int, timestamp, timeuuid, uuid, varchar, varint) -> blob
-            if(type2.equals(BasicType.BLOB)) {
-                return Arrays.asList(BasicType.ASCII, BasicType.BIGINT, BasicType.BOOLEAN, BasicType.DECIMAL, BasicType.DOUBLE,
-                        BasicType.FLOAT, BasicType.INET, BasicType.INT, BasicType.TIMESTAMP, BasicType.TIMEUUID, BasicType.UUID,
-                        BasicType.VARCHAR, BasicType.VARINT, BasicType.TEXT).contains(type1);
-            }
+    /**
+     * Compatibility rules of basic types, used to build the compatibility table
+     * @param type1 Source type
+     * @param type2 Target type
+     * @return
+     */
+    private static boolean isBasicCompatible(BasicType type1, BasicType type2) {
+        ColumnType source = simplifyType(type1);
+        ColumnType target = simplifyType(type2);
 
-            //int -> varint
-            if(type2.equals(BasicType.VARINT) && type1.equals(BasicType.INT)) {
-                return true;
-            }
+        if(source.equals(target)) {
+            return true;
+        }
 
-            //timeuuid -> uuid
-            return type2.equals(BasicType.UUID) && type1.equals(BasicType.TIMEUUID);
+        // (ascii, bigint, boolean, decimal, double, float, inet, int, timestamp, timeuuid, uuid, varchar, varint) -> blob
+        if(target.equals(BasicType.BLOB)) {
+            return EnumSet.of(BasicType.ASCII, BasicType.BIGINT, BasicType.BOOLEAN, BasicType.DECIMAL, BasicType.DOUBLE,
+                    BasicType.FLOAT, BasicType.INET, BasicType.INT, BasicType.TIMESTAMP, BasicType.TIMEUUID, BasicType.UUID,
+                    BasicType.VARCHAR, BasicType.VARINT, BasicType.TEXT).contains(source);
+        }
 
+        //int -> varint
+        if(target.equals(BasicType.VARINT) && source.equals(BasicType.INT)) {
+            return true;
         }
-        else if(type1.getClass() != type2.getClass()){
+
+        //timeuuid -> uuid
+        return target.equals(BasicType.UUID) && source.equals(BasicType.TIMEUUID);
+    }
+
+    private static boolean isCollectionCompatible(ColumnType type1, ColumnType type2) {
+        if(type1.getClass() != type2.getClass()){
             return false;
         }
         else if(type1 instanceof OneParameterType) {
@@ -77,18 +159,42 @@ public class CQLTypeUtils {
      * @return
      */
     public static boolean isOrderCompatible(ColumnType type1, ColumnType type2) {
+        // Structurally equal interned types (see TypeInterner) are the same object
+        if(type1 == type2) {
+            return true;
+        }
         if((type1 instanceof BasicType) && (type2 instanceof BasicType)) {
-            type1 = simplifyType(type1);
-            type2 = simplifyType(type2);
+            return ORDER_COMPATIBLE_TYPES.get(type2).contains(type1);
+        }
+        // Not computed in computeIfAbsent : inner collection types update the same cache
+        TypePair pair = new TypePair(type1, type2);
+        Boolean result = ORDER_COMPATIBLE_CACHE.get(pair);
+        if(result == null) {
+            result = isCollectionOrderCompatible(type1, type2);
+            ORDER_COMPATIBLE_CACHE.putIfAbsent(pair, result);
+        }
+        return result;
+    }
 
-            if(type1.equals(type2)) {
-                return true;
-            }
-            //int -> varint
-            return type2.equals(BasicType.VARINT) && type1.equals(BasicType.INT);
+    /**
+     * Order compatibility rules of basic types, used to build the order compatibility table
+     * @param type1 Source type
+     * @param type2 Target type
+     * @return
+     */
+    private static boolean isBasicOrderCompatible(BasicType type1, BasicType type2) {
+        ColumnType source = simplifyType(type1);
+        ColumnType target = simplifyType(type2);
 
+        if(source.equals(target)) {
+            return true;
         }
-        else if(type1.getClass() != type2.getClass()){
+        //int -> varint
+        return target.equals(BasicType.VARINT) && source.equals(BasicType.INT);
+    }
+
+    private static boolean isCollectionOrderCompatible(ColumnType type1, ColumnType type2) {
+        if(type1.getClass() != type2.getClass()){
             return false;
         }
         else if(type1 instanceof OneParameterType) {
@@ -113,6 +219,10 @@ public class CQLTypeUtils {
      * @return
      */
     public static boolean equals(ColumnType type1, ColumnType type2) {
+        // Structurally equal interned types (see TypeInterner) are the same object
+        if(type1 == type2) {
+            return true;
+        }
         if((type1 instanceof BasicType) && (type2 instanceof BasicType)) {
             return simplifyType(type1).equals(simplifyType(type2));
         }
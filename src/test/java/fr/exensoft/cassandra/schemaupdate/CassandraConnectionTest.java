@@ -3,7 +3,9 @@ package fr.exensoft.cassandra.schemaupdate;
 
 import com.datastax.driver.core.*;
 import fr.exensoft.cassandra.schemaupdate.cluster.CassandraClusterMock;
+import fr.exensoft.cassandra.schemaupdate.cluster.SystemSchemaMock;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
+import fr.exensoft.cassandra.schemaupdate.loader.ListeningSchemaLoader;
 import fr.exensoft.cassandra.schemaupdate.model.Column;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
 import fr.exensoft.cassandra.schemaupdate.model.Table;
@@ -14,7 +16,9 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
@@ -195,4 +199,102 @@ public class CassandraConnectionTest {
         assertThat(keyspace).isNull();
     }
 
+    @Test
+    public void loadKeyspaceTest_MetadataDisabled() {
+
+        Cluster cluster = new SystemSchemaMock().createCluster();
+        CassandraConnection connection = new CassandraConnection(cluster);
+
+        connection.connect();
+
+        Keyspace keyspace = connection.loadKeyspace("keyspace1");
+
+        assertThat(keyspace.getTables()).hasSize(2);
+        assertThat(keyspace.getTable("table2").getColumns()).hasSize(7);
+
+        Mockito.verify(cluster, Mockito.never()).getMetadata();
+    }
+
+    @Test
+    public void loadKeyspaceTest_SchemaCache() {
+
+        // Disabled by default
+        CassandraConnection connection = new CassandraConnection(new SystemSchemaMock().createCluster());
+        connection.connect();
+
+        assertThat(connection.loadKeyspace("keyspace1")).isNotSameAs(connection.loadKeyspace("keyspace1"));
+
+        connection = new CassandraConnection(new SystemSchemaMock().createCluster());
+        connection.setSchemaCacheEnabled(true);
+        connection.connect();
+
+        assertThat(connection.loadKeyspace("keyspace1")).isSameAs(connection.loadKeyspace("keyspace1"));
+
+        // Never cached on top of driver metadata
+        Cluster cluster = new CassandraClusterMock().createCluster();
+        connection = new CassandraConnection(cluster);
+        connection.setSchemaCacheEnabled(true);
+        connection.connect();
+
+        assertThat(connection.loadKeyspace("keyspace1")).isNotSameAs(connection.loadKeyspace("keyspace1"));
+        Mockito.verify(cluster.connect(), Mockito.never()).execute(Mockito.startsWith("SELECT schema_version"));
+    }
+
+    @Test
+    public void loadKeyspaceTest_SelectedTables() {
+
+        CassandraConnection connection = new CassandraConnection(new CassandraClusterMock().createCluster());
+        connection.connect();
+
+        Keyspace keyspace = connection.loadKeyspace("keyspace1", Arrays.asList("table1", "non_existing_table"));
+
+        assertThat(keyspace.getTables()).hasSize(1);
+        assertThat(keyspace.getTable("table1")).isNotNull();
+
+        assertThat(connection.loadKeyspace("non_existing_keyspace", Arrays.asList("table1"))).isNull();
+    }
+
+    @Test
+    public void loadKeyspaceTest_SchemaListener() {
+
+        Cluster cluster = new CassandraClusterMock().createCluster();
+        CassandraConnection connection = new CassandraConnection(cluster);
+        connection.setSchemaListenerEnabled(true);
+        connection.connect();
+
+        Keyspace keyspace = connection.loadKeyspace("keyspace1");
+
+        assertThat(connection.loadKeyspace("keyspace1")).isSameAs(keyspace);
+        Mockito.verify(cluster).register(Mockito.any(ListeningSchemaLoader.class));
+
+        connection.close();
+        Mockito.verify(cluster).unregister(Mockito.any(ListeningSchemaLoader.class));
+    }
+
+    @Test
+    public void loadKeyspaceTest_LegacyCluster() {
+
+        Cluster cluster = new SystemSchemaMock().createLegacyCluster();
+        CassandraConnection connection = new CassandraConnection(cluster);
+        connection.setLegacySchemaEnabled(true);
+        connection.connect();
+
+        Keyspace keyspace = connection.loadKeyspace("keyspace1");
+
+        assertThat(keyspace.getTables()).hasSize(2);
+        Mockito.verify(cluster, Mockito.never()).getMetadata();
+    }
+
+    @Test
+    public void loadKeyspacesTest() {
+
+        CassandraConnection connection = new CassandraConnection(new CassandraClusterMock().createCluster());
+        connection.connect();
+
+        Map<String, Keyspace> keyspaces = connection.loadKeyspaces(Arrays.asList("keyspace1", "non_existing_keyspace"));
+
+        assertThat(keyspaces).containsOnlyKeys("keyspace1");
+        assertThat(keyspaces.get("keyspace1").getTables()).hasSize(2);
+    }
+
 }
@@ -4,8 +4,12 @@ package fr.exensoft.cassandra.schemaupdate;
 import fr.exensoft.cassandra.schemaupdate.cluster.CassandraClusterMock;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.AbstractDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.CreateKeyspaceDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.DropKeyspaceDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.DropTableDelta;
 import fr.exensoft.cassandra.schemaupdate.model.Column;
 import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
 import fr.exensoft.cassandra.schemaupdate.model.Table;
@@ -15,6 +19,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.*;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -75,6 +80,7 @@ public class SchemaUpdateTest {
     public void createPatchTest_BuilderWithCassandraConnection() {
         CassandraConnection cassandraConnection = Mockito.mock(CassandraConnection.class);
         Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString());
+        Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString(), Mockito.anyCollection());
 
         SchemaUpdate schemaUpdate = new SchemaUpdate.Builder()
                 .withCassandraConnection(cassandraConnection)
@@ -113,6 +119,7 @@ public class SchemaUpdateTest {
 
         CassandraConnection cassandraConnection = Mockito.mock(CassandraConnection.class);
         Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString());
+        Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString(), Mockito.anyCollection());
 
         SchemaUpdate schemaUpdate = new SchemaUpdate.Builder()
                 .withCassandraConnection(cassandraConnection)
@@ -130,6 +137,39 @@ public class SchemaUpdateTest {
         assertThat(argumentCaptor.getAllValues().get(1)).isInstanceOf(CreateTableDelta.class);
     }
 
+    @Test
+    public void applyPatchTest_TablesSortedByName() {
+        Keyspace targetKeyspace = new Keyspace("keyspace1");
+        for(String name : Arrays.asList("orders", "users", "events", "accounts", "items")) {
+            targetKeyspace.addTable(
+                    new Table(name)
+                            .addColumn(new Column("column1", BasicType.UUID))
+                            .addPartitioningKey("column1")
+            );
+        }
+
+        CassandraConnection cassandraConnection = Mockito.mock(CassandraConnection.class);
+        Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString());
+        Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString(), Mockito.anyCollection());
+
+        SchemaUpdate schemaUpdate = new SchemaUpdate.Builder()
+                .withCassandraConnection(cassandraConnection)
+                .build();
+
+        DeltaResult patch = schemaUpdate.createPatch(targetKeyspace);
+
+        schemaUpdate.applyPatch(patch);
+
+        ArgumentCaptor<AbstractDelta> argumentCaptor = ArgumentCaptor.forClass(AbstractDelta.class);
+        Mockito.verify(cassandraConnection, Mockito.times(6)).applyDelta(argumentCaptor.capture());
+
+        List<String> tables = new ArrayList<>();
+        for(AbstractDelta delta : argumentCaptor.getAllValues().subList(1, 6)) {
+            tables.add(((CreateTableDelta) delta).getTarget().getName());
+        }
+        assertThat(tables).containsExactly("accounts", "events", "items", "orders", "users");
+    }
+
     @Test
     public void applyPatchTest_BuilderWithCassandraConnection_NoUpdates() {
         Keyspace sourceKeyspace = new Keyspace("keyspace1")
@@ -151,6 +191,7 @@ public class SchemaUpdateTest {
 
         CassandraConnection cassandraConnection = Mockito.mock(CassandraConnection.class);
         Mockito.doReturn(sourceKeyspace).when(cassandraConnection).loadKeyspace(Mockito.anyString());
+        Mockito.doReturn(sourceKeyspace).when(cassandraConnection).loadKeyspace(Mockito.anyString(), Mockito.anyCollection());
 
         SchemaUpdate schemaUpdate = new SchemaUpdate.Builder()
                 .withCassandraConnection(cassandraConnection)
@@ -162,6 +203,79 @@ public class SchemaUpdateTest {
 
         Mockito.verify(cassandraConnection, Mockito.times(0)).applyDelta(Mockito.any());
     }
+    @Test
+    public void createPatchTest_DroppedTablesDetection() {
+        Keyspace targetKeyspace = new Keyspace("keyspace1")
+                .addTable(
+                        new Table("table1")
+                                .addColumn(new Column("column1", BasicType.UUID))
+                                .addColumn(new Column("column2", new SetType(BasicType.TEXT)))
+                                .addPartitioningKey("column1")
+                );
+
+        // Only the tables of the target keyspace are loaded by default
+        SchemaUpdate schemaUpdate = new SchemaUpdate.Builder()
+                .withCluster(new CassandraClusterMock().createCluster())
+                .build();
+
+        DeltaResult patch = schemaUpdate.createPatch(targetKeyspace);
+
+        assertThat(patch.hasUpdate()).isFalse();
+        assertThat(patch.getTablesDelta()).containsOnlyKeys("table1");
+
+        // Table2 is dropped when detection is enabled
+        schemaUpdate = new SchemaUpdate.Builder()
+                .withCluster(new CassandraClusterMock().createCluster())
+                .withDroppedTablesDetection(true)
+                .build();
+
+        patch = schemaUpdate.createPatch(targetKeyspace);
+
+        assertThat(patch.hasUpdate()).isTrue();
+        assertThat(patch.getTablesDelta()).containsOnlyKeys("table1", "table2");
+        assertThat(patch.getTablesDelta().get("table2").getDeltas().get(0)).isInstanceOf(DropTableDelta.class);
+    }
+
+    @Test
+    public void createClusterPatchTest_UnexpectedKeyspacesDrop() {
+        Keyspace targetKeyspace = new Keyspace("keyspace1")
+                .addTable(
+                        new Table("table1")
+                                .addColumn(new Column("column1", BasicType.UUID))
+                                .addPartitioningKey("column1")
+                );
+
+        CassandraConnection cassandraConnection = Mockito.mock(CassandraConnection.class);
+        Mockito.doReturn(Arrays.asList("keyspace1", "keyspace2")).when(cassandraConnection).listKeyspaces();
+        Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString());
+        Mockito.doReturn(null).when(cassandraConnection).loadKeyspace(Mockito.anyString(), Mockito.anyCollection());
+
+        // Dropped tables detection alone never drops keyspaces
+        SchemaUpdate schemaUpdate = new SchemaUpdate.Builder()
+                .withCassandraConnection(cassandraConnection)
+                .withDroppedTablesDetection(true)
+                .build();
+
+        Map<String, DeltaResult> patches = schemaUpdate.createClusterPatch(Collections.singletonList(targetKeyspace));
+
+        assertThat(patches).containsOnlyKeys("keyspace1", "keyspace2");
+        assertThat(patches.get("keyspace2").hasUpdate()).isFalse();
+        for(DeltaResult patch : patches.values()) {
+            assertThat(patch.getKeyspaceDelta().hasDelta(ElementType.KEYSPACE, DeltaType.DROP)).isFalse();
+        }
+
+        // Unexpected keyspaces are dropped when explicitly enabled
+        schemaUpdate = new SchemaUpdate.Builder()
+                .withCassandraConnection(cassandraConnection)
+                .withUnexpectedKeyspacesDrop(true)
+                .build();
+
+        patches = schemaUpdate.createClusterPatch(Collections.singletonList(targetKeyspace));
+
+        assertThat(patches.get("keyspace2").getKeyspaceDelta().getDeltas()).hasSize(1);
+        assertThat(patches.get("keyspace2").getKeyspaceDelta().getDeltas().get(0)).isInstanceOf(DropKeyspaceDelta.class);
+    }
+
     @Test
     public void closeTest_BuilderWithCassandraConnection() {
         CassandraConnection cassandraConnection = Mockito.mock(CassandraConnection.class);
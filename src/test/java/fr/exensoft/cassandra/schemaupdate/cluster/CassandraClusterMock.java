@@ -6,9 +6,11 @@ import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class CassandraClusterMock extends CassandraTestUtils{
@@ -130,11 +132,62 @@ public class CassandraClusterMock extends CassandraTestUtils{
 
         Metadata metadata = createMetadata();
         Mockito.doReturn(metadata).when(cluster).getMetadata();
+        Mockito.doReturn(createConfiguration(true)).when(cluster).getConfiguration();
 
         Session session = Mockito.mock(Session.class);
         Mockito.doReturn(session).when(cluster).connect();
+        mockSchemaVersion(session, UUID.randomUUID());
 
         return cluster;
     }
 
+    /**
+     * Cluster containing a single keyspace "large_keyspace" with generated tables
+     * @param tableCount Number of tables
+     * @param columnCount Number of columns of each table
+     * @return
+     */
+    public Cluster createLargeCluster(int tableCount, int columnCount) {
+        DataType[] types = {DataType.cint(), DataType.text(), DataType.list(DataType.text()), DataType.map(DataType.text(), DataType.frozenSet(DataType.cint()))};
+
+        List<TableMetadata> tables = new ArrayList<>();
+        for(int i=0;i<tableCount;i++) {
+            List<ColumnMetadata> columns = new ArrayList<>();
+            for(int j=0;j<columnCount;j++) {
+                columns.add(createColumnMetadata("column"+j, types[j % types.length]));
+            }
+            tables.add(createTableMetadata("table"+i, columns, columns.subList(0, 1), columns.subList(1, 2),
+                    Collections.singletonList(ClusteringOrder.DESC), Collections.emptyList()));
+        }
+
+        Metadata metadata = Mockito.mock(Metadata.class);
+        Mockito.doReturn(createKeyspaceMetadata("large_keyspace", tables)).when(metadata).getKeyspace(Mockito.eq("large_keyspace"));
+
+        Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.doReturn(metadata).when(cluster).getMetadata();
+        Mockito.doReturn(createConfiguration(true)).when(cluster).getConfiguration();
+
+        return cluster;
+    }
+
+    /**
+     * Table metadata with columns "column1" to "columnN", column1 is the partitioning key
+     * @param keyspace Name of the keyspace of the table
+     * @param name Name of the table
+     * @param types Types of the columns
+     * @return
+     */
+    public TableMetadata createSimpleTableMetadata(String keyspace, String name, DataType... types) {
+        List<ColumnMetadata> columns = new ArrayList<>();
+        for(int i=0;i<types.length;i++) {
+            columns.add(createColumnMetadata("column"+(i+1), types[i]));
+        }
+        TableMetadata tableMetadata = createTableMetadata(name, columns, columns.subList(0, 1), Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+        KeyspaceMetadata keyspaceMetadata = createKeyspaceMetadata(keyspace, null);
+        Mockito.doReturn(keyspaceMetadata).when(tableMetadata).getKeyspace();
+
+        return tableMetadata;
+    }
+
 }
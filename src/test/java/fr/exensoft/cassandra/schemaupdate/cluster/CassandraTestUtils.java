@@ -6,6 +6,7 @@ import org.mockito.Mockito;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class CassandraTestUtils {
@@ -23,10 +24,32 @@ public class CassandraTestUtils {
         return rs;
     }
 
-    protected Row createVersionRow(String version) {
-        Row row = Mockito.mock(Row.class);
-        Mockito.doReturn(version).when(row).getString(Mockito.eq("release_version"));
-        return row;
+    protected Configuration createConfiguration(boolean metadataEnabled) {
+        return Configuration.builder()
+                .withQueryOptions(new QueryOptions().setMetadataEnabled(metadataEnabled))
+                .build();
+    }
+
+    /**
+     * Mock the schema version queries (system.local and system.peers) of a session
+     * @param session
+     * @param localVersion
+     * @param peersVersions
+     */
+    public void mockSchemaVersion(Session session, UUID localVersion, UUID... peersVersions) {
+        Row local = Mockito.mock(Row.class);
+        Mockito.doReturn(localVersion).when(local).getUUID(Mockito.eq("schema_version"));
+        ResultSet localResultSet = createResultSet(Arrays.asList(local));
+        Mockito.doReturn(localResultSet).when(session).execute(Mockito.startsWith("SELECT schema_version FROM system.local"));
+
+        Mockito.doAnswer(invocation -> {
+            Row[] peers = new Row[peersVersions.length];
+            for(int i=0;i<peersVersions.length;i++) {
+                peers[i] = Mockito.mock(Row.class);
+                Mockito.doReturn(peersVersions[i]).when(peers[i]).getUUID(Mockito.eq("schema_version"));
+            }
+            return createResultSet(Arrays.asList(peers));
+        }).when(session).execute(Mockito.startsWith("SELECT schema_version FROM system.peers"));
     }
 
 }
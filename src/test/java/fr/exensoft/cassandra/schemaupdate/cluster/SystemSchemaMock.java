@@ -0,0 +1,156 @@
+package fr.exensoft.cassandra.schemaupdate.cluster;
+
+import com.datastax.driver.core.*;
+import org.mockito.Mockito;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Cluster mock (metadata disabled) exposing the "CassandraClusterMock" sample keyspace
+ * through the system_schema tables (Cassandra 3.x) and the legacy schema tables (Cassandra 2.x)
+ */
+public class SystemSchemaMock extends CassandraTestUtils {
+
+    private final static Pattern QUERY = Pattern.compile("SELECT .* FROM (\\S+)( WHERE keyspace_name = \\?( AND (table_name|columnfamily_name) (=|IN) \\?)?)?");
+
+    private Map<String, List<Map<String, Object>>> tables = new HashMap<>();
+
+    public SystemSchemaMock() {
+        addRow("system_schema.keyspaces", "keyspace_name", "keyspace1");
+        addRow("system_schema.keyspaces", "keyspace_name", "keyspace2");
+
+        addRow("system_schema.tables", "keyspace_name", "keyspace1", "table_name", "table1");
+        addRow("system_schema.tables", "keyspace_name", "keyspace1", "table_name", "table2");
+
+        addColumn("table1", "column1", "partition_key", 0, "none", "uuid");
+        addColumn("table1", "column2", "regular", -1, "none", "set<text>");
+
+        addColumn("table2", "column1", "partition_key", 0, "none", "int");
+        addColumn("table2", "column2", "clustering", 0, "asc", "text");
+        addColumn("table2", "column3", "clustering", 1, "desc", "int");
+        addColumn("table2", "column4", "regular", -1, "none", "text");
+        addColumn("table2", "column5", "regular", -1, "none", "text");
+        addColumn("table2", "column6", "regular", -1, "none", "list<text>");
+        addColumn("table2", "column7", "regular", -1, "none", "map<text, frozen<set<int>>>");
+
+        addRow("system_schema.indexes", "keyspace_name", "keyspace1", "table_name", "table2", "index_name", "test_index",
+                "options", Collections.singletonMap("target", "column5"));
+
+        addRow("system.schema_keyspaces", "keyspace_name", "keyspace1");
+        addRow("system.schema_keyspaces", "keyspace_name", "keyspace2");
+
+        addLegacyColumn("table1", "column1", "partition_key", null, "org.apache.cassandra.db.marshal.UUIDType");
+        addLegacyColumn("table1", "column2", "regular", 0, "org.apache.cassandra.db.marshal.SetType(org.apache.cassandra.db.marshal.UTF8Type)");
+
+        addLegacyColumn("table2", "column1", "partition_key", null, "org.apache.cassandra.db.marshal.Int32Type");
+        addLegacyColumn("table2", "column2", "clustering_key", 0, "org.apache.cassandra.db.marshal.UTF8Type");
+        addLegacyColumn("table2", "column3", "clustering_key", 1, "org.apache.cassandra.db.marshal.ReversedType(org.apache.cassandra.db.marshal.Int32Type)");
+        addLegacyColumn("table2", "column4", "regular", 2, "org.apache.cassandra.db.marshal.UTF8Type");
+        addRow("system.schema_columns", "keyspace_name", "keyspace1", "columnfamily_name", "table2", "column_name", "column5",
+                "type", "regular", "component_index", 2, "validator", "org.apache.cassandra.db.marshal.UTF8Type",
+                "index_name", "test_index", "index_options", "{}");
+        addLegacyColumn("table2", "column6", "regular", 2, "org.apache.cassandra.db.marshal.ListType(org.apache.cassandra.db.marshal.UTF8Type)");
+        addLegacyColumn("table2", "column7", "regular", 2, "org.apache.cassandra.db.marshal.MapType(org.apache.cassandra.db.marshal.UTF8Type,org.apache.cassandra.db.marshal.FrozenType(org.apache.cassandra.db.marshal.SetType(org.apache.cassandra.db.marshal.Int32Type)))");
+
+        // Keys and entries indexes on maps (legacy schema tables only)
+        addRow("system.schema_columns", "keyspace_name", "keyspace2", "columnfamily_name", "table1", "column_name", "column1",
+                "type", "partition_key", "component_index", null, "validator", "org.apache.cassandra.db.marshal.Int32Type");
+        addRow("system.schema_columns", "keyspace_name", "keyspace2", "columnfamily_name", "table1", "column_name", "column2",
+                "type", "regular", "component_index", 0, "validator", "org.apache.cassandra.db.marshal.MapType(org.apache.cassandra.db.marshal.UTF8Type,org.apache.cassandra.db.marshal.Int32Type)",
+                "index_name", "keys_index", "index_options", "{\"index_keys\": \"\"}");
+        addRow("system.schema_columns", "keyspace_name", "keyspace2", "columnfamily_name", "table1", "column_name", "column3",
+                "type", "regular", "component_index", 0, "validator", "org.apache.cassandra.db.marshal.MapType(org.apache.cassandra.db.marshal.UTF8Type,org.apache.cassandra.db.marshal.Int32Type)",
+                "index_name", "entries_index", "index_options", "{\"index_keys_and_values\": \"\"}");
+    }
+
+    private void addLegacyColumn(String table, String name, String kind, Integer componentIndex, String validator) {
+        addRow("system.schema_columns", "keyspace_name", "keyspace1", "columnfamily_name", table, "column_name", name,
+                "type", kind, "component_index", componentIndex, "validator", validator);
+    }
+
+    private void addColumn(String table, String name, String kind, int position, String clusteringOrder, String type) {
+        addRow("system_schema.columns", "keyspace_name", "keyspace1", "table_name", table, "column_name", name,
+                "kind", kind, "position", position, "clustering_order", clusteringOrder, "type", type);
+    }
+
+    private void addRow(String table, Object... values) {
+        Map<String, Object> row = new HashMap<>();
+        for(int i=0;i<values.length;i+=2) {
+            row.put((String) values[i], values[i+1]);
+        }
+        tables.computeIfAbsent(table, t -> new ArrayList<>()).add(row);
+    }
+
+    private Row createRow(Map<String, Object> values) {
+        Row row = Mockito.mock(Row.class);
+        Mockito.doAnswer(invocation -> values.get(invocation.getArguments()[0]))
+                .when(row).getString(Mockito.anyString());
+        Mockito.doAnswer(invocation -> values.get(invocation.getArguments()[0]))
+                .when(row).getInt(Mockito.anyString());
+        Mockito.doAnswer(invocation -> values.get(invocation.getArguments()[0]))
+                .when(row).getMap(Mockito.anyString(), Mockito.eq(String.class), Mockito.eq(String.class));
+        Mockito.doAnswer(invocation -> values.get(invocation.getArguments()[0]) == null)
+                .when(row).isNull(Mockito.anyString());
+        return row;
+    }
+
+    private ResultSetFuture query(SimpleStatement statement) {
+        Matcher matcher = QUERY.matcher(statement.getQueryString());
+        if(!matcher.matches()) {
+            throw new IllegalArgumentException(statement.getQueryString());
+        }
+
+        List<Row> rows = tables.getOrDefault(matcher.group(1), Collections.emptyList()).stream()
+                .filter(row -> matcher.group(2) == null || row.get("keyspace_name").equals(statement.getObject(0)))
+                .filter(row -> matcher.group(3) == null || ("=".equals(matcher.group(5))
+                        ? row.get(matcher.group(4)).equals(statement.getObject(1))
+                        : ((Collection<?>) statement.getObject(1)).contains(row.get(matcher.group(4)))))
+                .map(this::createRow)
+                .collect(Collectors.toList());
+
+        ResultSet resultSet = createResultSet(rows);
+        Mockito.doReturn(true).when(resultSet).isFullyFetched();
+
+        ResultSetFuture future = Mockito.mock(ResultSetFuture.class);
+        Mockito.doReturn(resultSet).when(future).getUninterruptibly();
+        return future;
+    }
+
+    public Session createSession() {
+        Session session = Mockito.mock(Session.class);
+        Mockito.doAnswer(invocation -> query((SimpleStatement) invocation.getArguments()[0]))
+                .when(session).executeAsync(Mockito.any(Statement.class));
+        return session;
+    }
+
+    public Cluster createCluster() {
+        Cluster cluster = Mockito.mock(Cluster.class);
+
+        Mockito.doReturn(createConfiguration(false)).when(cluster).getConfiguration();
+
+        Session session = createSession();
+        Mockito.doReturn(session).when(cluster).connect();
+        mockSchemaVersion(session, UUID.randomUUID());
+
+        return cluster;
+    }
+
+    /**
+     * Cluster mock of a Cassandra 2.2 node (metadata enabled but not mocked)
+     * @return
+     */
+    public Cluster createLegacyCluster() {
+        Cluster cluster = Mockito.mock(Cluster.class);
+
+        Mockito.doReturn(createConfiguration(true)).when(cluster).getConfiguration();
+
+        Session session = createSession();
+        Mockito.doReturn(session).when(cluster).connect();
+        mockSchemaVersion(session, UUID.randomUUID());
+
+        return cluster;
+    }
+}
@@ -0,0 +1,130 @@
+package fr.exensoft.cassandra.schemaupdate.comparator;
+
+
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.CreateKeyspaceDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.DropKeyspaceDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
+import fr.exensoft.cassandra.schemaupdate.loader.CQLSchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.loader.SchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class ClusterComparatorTest {
+
+    private final static String SCHEMA = "CREATE KEYSPACE system WITH replication = {'class': 'LocalStrategy'};\n" +
+            "CREATE TABLE system.local (key text PRIMARY KEY, release_version text);\n" +
+            "CREATE KEYSPACE keyspace1 WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n" +
+            "CREATE TABLE keyspace1.table1 (id int PRIMARY KEY, value text);\n" +
+            "CREATE TABLE keyspace1.old_table (id int PRIMARY KEY);\n" +
+            "CREATE KEYSPACE keyspace2 WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n" +
+            "CREATE TABLE keyspace2.table1 (id int PRIMARY KEY);\n" +
+            "CREATE KEYSPACE dse_perf WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n" +
+            "CREATE KEYSPACE keyspace4 WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n";
+
+    private Table createTable(String name) {
+        return new Table(name)
+                .addColumn(new Column("id", BasicType.INT))
+                .addColumn(new Column("value", BasicType.TEXT))
+                .addPartitioningKey("id");
+    }
+
+    @Test
+    public void compareTest() {
+        Keyspace keyspace1 = new Keyspace("keyspace1")
+                .addTable(createTable("table1"))
+                .addTable(createTable("table2"));
+        Keyspace keyspace3 = new Keyspace("keyspace3")
+                .addTable(createTable("table1"));
+
+        Map<String, DeltaResult> results = new ClusterComparator(new CQLSchemaLoader(new StringReader(SCHEMA)), Arrays.asList(keyspace1, keyspace3))
+                .setParallelism(2)
+                .setDropUnexpectedKeyspaces(true)
+                .addIgnoredKeyspaces("keyspace4")
+                .compare();
+
+        assertThat(results.keySet()).containsExactly("keyspace1", "keyspace2", "keyspace3");
+
+        // Existing keyspace : new table and dropped table
+        DeltaResult result1 = results.get("keyspace1");
+        assertThat(result1.getKeyspaceDelta().hasUpdate()).isFalse();
+        assertThat(result1.getTablesDelta().get("table1").hasUpdate()).isFalse();
+        assertThat(result1.getTablesDelta().get("table2").getDeltas().get(0)).isInstanceOf(CreateTableDelta.class);
+        assertThat(result1.getTablesDelta().get("old_table").hasFlag(DeltaFlag.DATA_LOSS)).isTrue();
+
+        // Unexpected keyspace
+        DeltaResult result2 = results.get("keyspace2");
+        assertThat(result2.getKeyspaceDelta().getDeltas()).hasSize(1);
+        assertThat(result2.getKeyspaceDelta().getDeltas().get(0)).isInstanceOf(DropKeyspaceDelta.class);
+        assertThat(result2.hasFlag(DeltaFlag.DATA_LOSS)).isTrue();
+
+        // Missing keyspace
+        DeltaResult result3 = results.get("keyspace3");
+        assertThat(result3.getKeyspaceDelta().getDeltas().get(0)).isInstanceOf(CreateKeyspaceDelta.class);
+        assertThat(result3.getTablesDelta().get("table1").getDeltas().get(0)).isInstanceOf(CreateTableDelta.class);
+    }
+
+    @Test
+    public void compareTest_DetectionDisabled() {
+        Keyspace keyspace1 = new Keyspace("keyspace1")
+                .addTable(createTable("table1"));
+        Keyspace keyspace2 = new Keyspace("keyspace2")
+                .addTable(new Table("table1").addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id"));
+
+        Map<String, DeltaResult> results = new ClusterComparator(new CQLSchemaLoader(new StringReader(SCHEMA)), Arrays.asList(keyspace1, keyspace2))
+                .setDetectDroppedTables(false)
+                .compare();
+
+        assertThat(results.keySet()).containsExactly("keyspace1", "keyspace2", "keyspace4");
+        assertThat(results.get("keyspace1").hasUpdate()).isFalse();
+        assertThat(results.get("keyspace2").hasUpdate()).isFalse();
+    }
+
+    @Test
+    public void compareTest_DetectionDisabled_CatalogTablesOnly() {
+        Keyspace keyspace1 = new Keyspace("keyspace1")
+                .addTable(createTable("table1"));
+
+        SchemaLoader schemaLoader = Mockito.mock(SchemaLoader.class);
+        Mockito.doReturn(Arrays.asList("keyspace1")).when(schemaLoader).listKeyspaces();
+        Mockito.doReturn(new Keyspace("keyspace1").addTable(createTable("table1")))
+                .when(schemaLoader).loadKeyspace(Mockito.eq("keyspace1"), Mockito.anyCollection());
+
+        Map<String, DeltaResult> results = new ClusterComparator(schemaLoader, Arrays.asList(keyspace1))
+                .setDetectDroppedTables(false)
+                .compare();
+
+        assertThat(results.get("keyspace1").hasUpdate()).isFalse();
+
+        // Only the tables of the catalog are loaded
+        Mockito.verify(schemaLoader).loadKeyspace("keyspace1", Arrays.asList("table1"));
+        Mockito.verify(schemaLoader, Mockito.never()).loadKeyspace(Mockito.anyString());
+    }
+
+    @Test
+    public void compareTest_UnexpectedKeyspaces() {
+        Keyspace keyspace1 = new Keyspace("keyspace1")
+                .addTable(createTable("table1"));
+
+        // Unexpected keyspaces are reported without delta by default
+        Map<String, DeltaResult> results = new ClusterComparator(new CQLSchemaLoader(new StringReader(SCHEMA)), Arrays.asList(keyspace1))
+                .setDetectDroppedTables(false)
+                .compare();
+
+        assertThat(results.keySet()).containsExactly("keyspace1", "keyspace2", "keyspace4");
+        assertThat(results.get("keyspace2").hasUpdate()).isFalse();
+        assertThat(results.get("keyspace2").getTablesDelta()).isEmpty();
+        assertThat(results.get("keyspace4").hasUpdate()).isFalse();
+    }
+}
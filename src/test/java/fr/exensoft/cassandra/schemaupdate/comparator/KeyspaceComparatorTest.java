@@ -1,10 +1,13 @@
 package fr.exensoft.cassandra.schemaupdate.comparator;
 
 
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaFilter;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.*;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaType;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.ElementType;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.CreateKeyspaceDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.DropKeyspaceDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
@@ -16,6 +19,8 @@ import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
 import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
 import org.junit.Test;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 public class KeyspaceComparatorTest {
@@ -167,6 +172,37 @@ public class KeyspaceComparatorTest {
 
     }
 
+    @Test
+    public void dropTableTest_DetectionDisabled() {
+
+        Keyspace sourceKeyspace = new Keyspace("test")
+                .addTable(new Table("table1")
+                        .addColumn(new Column("column1", BasicType.UUID))
+                        .addPartitioningKey("column1")
+                )
+                .addTable(new Table("table2")
+                        .addColumn(new Column("column1", BasicType.TEXT))
+                        .addPartitioningKey("column1")
+                )
+                ;
+
+        Keyspace targetKeyspace = new Keyspace("test")
+                .addTable(new Table("table2")
+                        .addColumn(new Column("column1", BasicType.TEXT))
+                        .addPartitioningKey("column1")
+                )
+                ;
+
+
+        KeyspaceComparator keyspaceComparator = new KeyspaceComparator(sourceKeyspace, targetKeyspace)
+                .setDetectDroppedTables(false);
+
+        DeltaResult result = keyspaceComparator.compare();
+
+        assertThat(result.hasUpdate()).isFalse();
+        assertThat(result.getTablesDelta()).containsOnlyKeys("table2");
+    }
+
     @Test
     public void createTableTest() {
 
@@ -208,4 +244,111 @@ public class KeyspaceComparatorTest {
 
     }
 
+    @Test
+    public void parallelCompareTest() {
+        Keyspace sourceKeyspace = new Keyspace("test");
+        Keyspace targetKeyspace = new Keyspace("test");
+        for(int i=0;i<100;i++) {
+            sourceKeyspace.addTable(new Table("table"+i)
+                    .addColumn(new Column("column1", BasicType.UUID))
+                    .addColumn(new Column("column2", BasicType.INT))
+                    .addPartitioningKey("column1"));
+
+            // Odd tables have a new column, table0 is dropped
+            if(i == 0) {
+                continue;
+            }
+            Table targetTable = new Table("table"+i)
+                    .addColumn(new Column("column1", BasicType.UUID))
+                    .addColumn(new Column("column2", BasicType.INT))
+                    .addPartitioningKey("column1");
+            if(i % 2 == 1) {
+                targetTable.addColumn(new Column("column3", BasicType.TEXT));
+            }
+            targetKeyspace.addTable(targetTable);
+        }
+        targetKeyspace.addTable(new Table("new_table")
+                .addColumn(new Column("column1", BasicType.UUID))
+                .addPartitioningKey("column1"));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DeltaResult result = new KeyspaceComparator(sourceKeyspace, targetKeyspace)
+                    .setPool(pool)
+                    .compare();
+
+            assertThat(result.getTablesDelta()).hasSize(101);
+            assertThat(result.getTablesDelta().get("table0").getDeltas().get(0)).isInstanceOf(DropTableDelta.class);
+            assertThat(result.getTablesDelta().get("new_table").getDeltas().get(0)).isInstanceOf(CreateTableDelta.class);
+            for(int i=1;i<100;i++) {
+                DeltaList deltaList = result.getTablesDelta().get("table"+i);
+                if(i % 2 == 1) {
+                    assertThat(deltaList.getDeltas()).hasSize(1);
+                    assertThat(deltaList.getDeltas().get(0)).isInstanceOf(CreateColumnDelta.class);
+                }
+                else {
+                    assertThat(deltaList.hasUpdate()).isFalse();
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void filterTest() {
+        Keyspace sourceKeyspace = new Keyspace("test")
+                .addTable(new Table("service1_table")
+                        .addColumn(new Column("column1", BasicType.UUID))
+                        .addColumn(new Column("column2", BasicType.TEXT))
+                        .addPartitioningKey("column1")
+                        .addIndex("service1_table_column2_idx", "column2"))
+                .addTable(new Table("service2_table")
+                        .addColumn(new Column("column1", BasicType.UUID))
+                        .addPartitioningKey("column1"));
+
+        Keyspace targetKeyspace = new Keyspace("test")
+                .addTable(new Table("service1_table")
+                        .addColumn(new Column("column1", BasicType.UUID))
+                        .addColumn(new Column("column2", BasicType.TEXT))
+                        .addColumn(new Column("column3", BasicType.TEXT))
+                        .addPartitioningKey("column1"))
+                .addTable(new Table("service2_table")
+                        .addColumn(new Column("column1", BasicType.UUID))
+                        .addColumn(new Column("column2", BasicType.TEXT))
+                        .addPartitioningKey("column1"));
+
+        // Only the indexes of the tables of service1
+        DeltaResult result = new KeyspaceComparator(sourceKeyspace, targetKeyspace)
+                .setFilter(new DeltaFilter()
+                        .withTables(name -> name.startsWith("service1_"))
+                        .withDeltaTypes(DeltaType.CREATE_INDEX, DeltaType.DROP_INDEX))
+                .compare();
+
+        assertThat(result.getTablesDelta()).containsOnlyKeys("service1_table");
+        DeltaList deltaList = result.getTablesDelta().get("service1_table");
+        assertThat(deltaList.getDeltas()).hasSize(1);
+        assertThat(deltaList.getDeltas().get(0)).isInstanceOf(DropIndexDelta.class);
+
+        // Only column creations
+        result = new KeyspaceComparator(sourceKeyspace, targetKeyspace)
+                .setFilter(new DeltaFilter()
+                        .withElementTypes(ElementType.COLUMN)
+                        .withDeltaTypes(DeltaType.CREATE))
+                .compare();
+
+        assertThat(result.getTablesDelta()).containsOnlyKeys("service1_table", "service2_table");
+        assertThat(result.getTablesDelta().get("service1_table").getDeltas()).hasSize(1);
+        assertThat(result.getTablesDelta().get("service1_table").getDeltas().get(0)).isInstanceOf(CreateColumnDelta.class);
+        assertThat(result.getTablesDelta().get("service2_table").getDeltas()).hasSize(1);
+
+        // Only keyspace deltas : tables are not compared
+        result = new KeyspaceComparator(sourceKeyspace, targetKeyspace)
+                .setFilter(new DeltaFilter().withElementTypes(ElementType.KEYSPACE))
+                .compare();
+
+        assertThat(result.getTablesDelta()).isEmpty();
+        assertThat(result.hasUpdate()).isFalse();
+    }
 }
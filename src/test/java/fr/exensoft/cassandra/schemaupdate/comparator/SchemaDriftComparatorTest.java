@@ -0,0 +1,62 @@
+package fr.exensoft.cassandra.schemaupdate.comparator;
+
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.CreateColumnDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.CreateKeyspaceDelta;
+import fr.exensoft.cassandra.schemaupdate.loader.CQLSchemaLoader;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SchemaDriftComparatorTest {
+
+    private final static String KEYSPACE = "CREATE KEYSPACE keyspace1 WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n";
+
+    private final static String TABLE1 = "CREATE TABLE keyspace1.table1 (id int PRIMARY KEY, value text);\n";
+
+    private final static String TABLE2 = "CREATE TABLE keyspace1.table2 (id int PRIMARY KEY, value text);\n";
+
+    private final static String TABLE2_DRIFT = "CREATE TABLE keyspace1.table2 (id int PRIMARY KEY);\n";
+
+    @Test
+    public void compareTest() {
+        Map<String, CQLSchemaLoader> clusters = new LinkedHashMap<>();
+        clusters.put("europe", new CQLSchemaLoader(new StringReader(KEYSPACE + TABLE1 + TABLE2)));
+        clusters.put("america", new CQLSchemaLoader(new StringReader(KEYSPACE + TABLE1 + TABLE2)));
+        clusters.put("asia", new CQLSchemaLoader(new StringReader(KEYSPACE + TABLE1 + TABLE2_DRIFT)));
+        clusters.put("staging", new CQLSchemaLoader(new StringReader("")));
+
+        Map<String, DeltaResult> results = new SchemaDriftComparator("keyspace1", clusters, "europe")
+                .setParallelism(2)
+                .compare();
+
+        assertThat(results.keySet()).containsExactly("america", "asia", "staging");
+
+        assertThat(results.get("america").hasUpdate()).isFalse();
+        assertThat(results.get("america").getTablesDelta()).containsOnlyKeys("table1", "table2");
+
+        DeltaResult asia = results.get("asia");
+        assertThat(asia.hasUpdate()).isTrue();
+        assertThat(asia.getTablesDelta().get("table1").hasUpdate()).isFalse();
+        assertThat(asia.getTablesDelta().get("table2").getDeltas()).hasSize(1);
+        assertThat(asia.getTablesDelta().get("table2").getDeltas().get(0)).isInstanceOf(CreateColumnDelta.class);
+
+        assertThat(results.get("staging").getKeyspaceDelta().getDeltas().get(0)).isInstanceOf(CreateKeyspaceDelta.class);
+    }
+
+    @Test
+    public void unknownReferenceTest() {
+        Map<String, CQLSchemaLoader> clusters = new LinkedHashMap<>();
+        clusters.put("europe", new CQLSchemaLoader(new StringReader(KEYSPACE + TABLE1)));
+
+        assertThatThrownBy(() -> new SchemaDriftComparator("keyspace1", clusters, "america"))
+                .isInstanceOf(SchemaUpdateException.class);
+    }
+}
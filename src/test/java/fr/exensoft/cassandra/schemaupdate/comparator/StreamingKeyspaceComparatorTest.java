@@ -0,0 +1,91 @@
+package fr.exensoft.cassandra.schemaupdate.comparator;
+
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.CreateColumnDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.DropTableDelta;
+import fr.exensoft.cassandra.schemaupdate.loader.CQLSchemaLoader;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class StreamingKeyspaceComparatorTest {
+
+    private final static String SCHEMA = "CREATE KEYSPACE test WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n" +
+            "CREATE TABLE test.table_a (id int PRIMARY KEY, value text);\n" +
+            "CREATE TABLE test.table_b (id int PRIMARY KEY, value text);\n" +
+            "CREATE TABLE test.table_d (id int PRIMARY KEY);\n";
+
+    private Keyspace createTargetKeyspace() {
+        return new Keyspace("test")
+                .addTable(new Table("table_c")
+                        .addColumn(new Column("id", BasicType.INT))
+                        .addPartitioningKey("id"))
+                .addTable(new Table("table_b")
+                        .addColumn(new Column("id", BasicType.INT))
+                        .addColumn(new Column("value", BasicType.TEXT))
+                        .addColumn(new Column("other", BasicType.TEXT))
+                        .addPartitioningKey("id"))
+                .addTable(new Table("table_a")
+                        .addColumn(new Column("id", BasicType.INT))
+                        .addColumn(new Column("value", BasicType.TEXT))
+                        .addPartitioningKey("id"));
+    }
+
+    @Test
+    public void compareTest() {
+        CQLSchemaLoader schemaLoader = new CQLSchemaLoader(new StringReader(SCHEMA));
+        Iterator<Table> source = StreamingKeyspaceComparator.loadTables(schemaLoader, "test", Arrays.asList("table_d", "table_b", "table_a", "unknown"));
+        Iterator<Table> target = StreamingKeyspaceComparator.sortedTables(createTargetKeyspace());
+
+        Map<String, DeltaList> result = new LinkedHashMap<>();
+        new StreamingKeyspaceComparator("test", source, target).compare(result::put);
+
+        assertThat(result.keySet()).containsExactly("table_a", "table_b", "table_c", "table_d");
+        assertThat(result.get("table_a").hasUpdate()).isFalse();
+
+        assertThat(result.get("table_b").getDeltas()).hasSize(1);
+        assertThat(result.get("table_b").getDeltas().get(0)).isInstanceOf(CreateColumnDelta.class);
+
+        assertThat(result.get("table_c").getDeltas().get(0)).isInstanceOf(CreateTableDelta.class);
+        assertThat(result.get("table_d").getDeltas().get(0)).isInstanceOf(DropTableDelta.class);
+        assertThat(result.get("table_d").getDeltas().get(0).generateCQL()).isEqualTo("DROP TABLE \"test\".\"table_d\"");
+    }
+
+    @Test
+    public void compareTest_DetectionDisabled() {
+        CQLSchemaLoader schemaLoader = new CQLSchemaLoader(new StringReader(SCHEMA));
+        Iterator<Table> source = StreamingKeyspaceComparator.loadTables(schemaLoader, "test", Arrays.asList("table_a", "table_b", "table_d"));
+        Iterator<Table> target = StreamingKeyspaceComparator.sortedTables(createTargetKeyspace());
+
+        Map<String, DeltaList> result = new LinkedHashMap<>();
+        new StreamingKeyspaceComparator("test", source, target)
+                .setDetectDroppedTables(false)
+                .compare(result::put);
+
+        assertThat(result.keySet()).containsExactly("table_a", "table_b", "table_c");
+    }
+
+    @Test
+    public void compareTest_NotSorted() {
+        Keyspace keyspace = createTargetKeyspace();
+        Iterator<Table> target = keyspace.getTables().iterator();
+
+        assertThatThrownBy(() -> new StreamingKeyspaceComparator("test", StreamingKeyspaceComparator.sortedTables(new Keyspace("test")), target)
+                .compare((name, deltaList) -> {}))
+                .isInstanceOf(SchemaUpdateException.class);
+    }
+}
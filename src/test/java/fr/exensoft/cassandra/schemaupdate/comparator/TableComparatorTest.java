@@ -585,6 +585,58 @@ public class TableComparatorTest {
 
         assertThat(list.hasUpdate()).isFalse();
         assertThat(list.getFlags()).containsOnly(DeltaFlag.ORDER_CHANGED);
+        assertThat(tableComparator.getMovedColumns()).containsExactly(targetTable.getColumn("column4"));
+    }
+
+    @Test
+    public void movedColumnsTest() {
+        Table sourceTable = new Table("test_table")
+                .addColumn(new Column("id", BasicType.INT))
+                .setKeyspace(keyspace);
+        Table targetTable = new Table("test_table")
+                .addColumn(new Column("id", BasicType.INT))
+                .setKeyspace(keyspace);
+
+        for(int i=0;i<500;i++) {
+            sourceTable.addColumn(new Column("column"+i, BasicType.INT));
+        }
+        // column10 moves to the end, a renamed column keeps its position, a new column is added at the end
+        for(int i=0;i<500;i++) {
+            if(i == 10) {
+                continue;
+            }
+            if(i == 20) {
+                targetTable.addColumn(new Column("renamed20", BasicType.INT).addOldName("column20"));
+                continue;
+            }
+            targetTable.addColumn(new Column("column"+i, BasicType.INT));
+        }
+        targetTable.addColumn(new Column("column10", BasicType.INT));
+        targetTable.addColumn(new Column("new_column", BasicType.INT));
+        sourceTable.addPartitioningKey("id");
+        targetTable.addPartitioningKey("id");
+
+        TableComparator tableComparator = new TableComparator(sourceTable, targetTable);
+        DeltaList list = tableComparator.compare();
+
+        assertThat(list.getFlags()).contains(DeltaFlag.ORDER_CHANGED);
+        assertThat(tableComparator.getMovedColumns()).containsExactly(targetTable.getColumn("column10"));
+
+        // Created columns at the end of the table do not change the order
+        Table createdTable = new Table("test_table")
+                .addColumn(new Column("id", BasicType.INT))
+                .setKeyspace(keyspace);
+        sourceTable.getColumns().stream()
+                .skip(1)
+                .forEach(column -> createdTable.addColumn(new Column(column.getName(), column.getType())));
+        createdTable.addColumn(new Column("new_column", BasicType.INT));
+        createdTable.addPartitioningKey("id");
+
+        tableComparator = new TableComparator(sourceTable, createdTable);
+        list = tableComparator.compare();
+
+        assertThat(list.getFlags()).doesNotContain(DeltaFlag.ORDER_CHANGED);
+        assertThat(tableComparator.getMovedColumns()).isEmpty();
     }
 
     @Test
@@ -834,4 +886,30 @@ public class TableComparatorTest {
         assertThat(((ColumnAbstractDelta) list.getDeltas().get(3)).getSource()).isEqualTo(sourceTable.getColumn("column4"));
         assertThat(((ColumnAbstractDelta) list.getDeltas().get(3)).getTarget()).isEqualTo(targetTable.getColumn("column4"));
     }
+
+    @Test
+    public void largeTableTest() {
+        Table sourceTable = new Table("test_table")
+                .addColumn(new Column("id", BasicType.INT))
+                .setKeyspace(keyspace);
+        Table targetTable = new Table("test_table")
+                .addColumn(new Column("id", BasicType.INT))
+                .setKeyspace(keyspace);
+
+        for(int i=0;i<1000;i++) {
+            sourceTable.addColumn(new Column("column"+i, BasicType.INT));
+            // Every tenth column changes to an incompatible type
+            targetTable.addColumn(new Column("column"+i, (i % 10 == 0) ? BasicType.TEXT : BasicType.INT));
+        }
+        sourceTable.addPartitioningKey("id");
+        targetTable.addPartitioningKey("id");
+
+        DeltaList list = new TableComparator(sourceTable, targetTable).compare();
+
+        assertThat(list.getDeltas()).hasSize(200);
+        assertThat(list.getDeltas().stream().filter(d -> d instanceof AlterTypeColumnDelta)).isEmpty();
+        assertThat(list.getDeltas().stream().filter(d -> d instanceof DropColumnDelta)).hasSize(100);
+        assertThat(list.getDeltas().stream().filter(d -> d instanceof CreateColumnDelta)).hasSize(100);
+        assertThat(list.getFlags()).contains(DeltaFlag.DATA_LOSS, DeltaFlag.ORDER_CHANGED);
+    }
 }
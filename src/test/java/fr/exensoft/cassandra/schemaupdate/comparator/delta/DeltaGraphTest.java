@@ -0,0 +1,127 @@
+package fr.exensoft.cassandra.schemaupdate.comparator.delta;
+
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.CreateColumnDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.CreateIndexDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.DropColumnDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.DropIndexDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.CreateKeyspaceDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeltaGraphTest {
+
+    @Test
+    public void dependenciesTest() {
+        Keyspace keyspace = new Keyspace("test");
+
+        Table table1 = new Table("table1");
+        Column column1 = new Column("column1", BasicType.TEXT);
+        table1.addColumn(column1);
+        table1.addPartitioningKey("column1");
+        table1.addIndex("column1_idx", "column1");
+
+        Table table2 = new Table("table2");
+        Column column2 = new Column("column2", BasicType.TEXT);
+        Column column3 = new Column("column3", BasicType.INT);
+        Column column4 = new Column("column4", BasicType.INT);
+        table2.addColumn(column2);
+        table2.addColumn(column3);
+        table2.addPartitioningKey("column2");
+        table2.addIndex("column3_idx", "column3");
+
+        CreateKeyspaceDelta createKeyspace = new CreateKeyspaceDelta(keyspace);
+        CreateTableDelta createTable = new CreateTableDelta(keyspace, table1);
+        CreateIndexDelta createIndex = new CreateIndexDelta(keyspace, table1, column1, column1);
+        DropIndexDelta dropIndex = new DropIndexDelta(keyspace, table2, column3, null);
+        DropColumnDelta dropColumn = new DropColumnDelta(keyspace, table2, column3);
+        CreateColumnDelta createColumn = new CreateColumnDelta(keyspace, table2, column4);
+
+        DeltaList keyspaceList = new DeltaList();
+        keyspaceList.addDelta(createKeyspace);
+
+        DeltaList table1List = new DeltaList();
+        table1List.addDelta(createIndex);
+        table1List.addDelta(createTable);
+
+        DeltaList table2List = new DeltaList();
+        table2List.addDelta(createColumn);
+        table2List.addDelta(dropColumn);
+        table2List.addDelta(dropIndex);
+
+        Map<String, DeltaList> tables = new HashMap<>();
+        tables.put("table2", table2List);
+        tables.put("table1", table1List);
+        tables.put("table3", new DeltaList());
+
+        DeltaGraph graph = new DeltaGraph(new DeltaResult("test", keyspaceList, tables));
+
+        assertThat(graph.size()).isEqualTo(6);
+
+        // Keyspace before the tables
+        assertThat(graph.getDependencies(createKeyspace)).isEmpty();
+        assertThat(graph.getDependents(createKeyspace)).containsExactly(createTable, dropIndex);
+
+        // Table creation before index creation
+        assertThat(graph.getDependencies(createTable)).containsExactly(createKeyspace);
+        assertThat(graph.getDependencies(createIndex)).containsExactly(createTable);
+        assertThat(graph.getDependents(createIndex)).isEmpty();
+
+        // Drop index before drop column
+        assertThat(graph.getDependencies(dropIndex)).containsExactly(createKeyspace);
+        assertThat(graph.getDependencies(dropColumn)).containsExactly(dropIndex);
+        assertThat(graph.getDependencies(createColumn)).containsExactly(dropColumn);
+
+        assertThat(graph.getTable(createKeyspace)).isNull();
+        assertThat(graph.getTable(dropColumn)).isEqualTo("table2");
+
+        // Tables are parallel branches
+        assertThat(graph.getDepth()).isEqualTo(4);
+        assertThat(graph.getWidth()).isEqualTo(2);
+        assertThat(graph.getLayers()).hasSize(4);
+        assertThat(graph.getLayers().get(0)).containsExactly(createKeyspace);
+        assertThat(graph.getLayers().get(1)).containsExactly(createTable, dropIndex);
+        assertThat(graph.getLayers().get(2)).containsExactly(createIndex, dropColumn);
+        assertThat(graph.getLayers().get(3)).containsExactly(createColumn);
+        assertThat(graph.getDeltas()).containsExactly(createKeyspace, createTable, dropIndex, createIndex, dropColumn, createColumn);
+
+        String dot = graph.toDot();
+        assertThat(dot).startsWith("digraph \"test\" {");
+        assertThat(dot).contains("subgraph cluster_0", "label=\"table1\"", "label=\"table2\"");
+        assertThat(dot).contains("d0 -> d1;", "d0 -> d2;", "d1 -> d3;", "d2 -> d4;", "d4 -> d5;");
+    }
+
+    @Test
+    public void sameLevelTest() {
+        Keyspace keyspace = new Keyspace("test");
+        Table table = new Table("table1");
+        Column column1 = new Column("column1", BasicType.TEXT);
+        Column column2 = new Column("column2", BasicType.TEXT);
+
+        CreateColumnDelta createColumn1 = new CreateColumnDelta(keyspace, table, column1);
+        CreateColumnDelta createColumn2 = new CreateColumnDelta(keyspace, table, column2);
+
+        DeltaList tableList = new DeltaList();
+        tableList.addDelta(createColumn1);
+        tableList.addDelta(createColumn2);
+
+        Map<String, DeltaList> tables = new HashMap<>();
+        tables.put("table1", tableList);
+
+        DeltaGraph graph = new DeltaGraph(new DeltaResult("test", new DeltaList(), tables));
+
+        // Deltas with the same priority are independent
+        assertThat(graph.getDepth()).isEqualTo(1);
+        assertThat(graph.getWidth()).isEqualTo(2);
+        assertThat(graph.getDependencies(createColumn1)).isEmpty();
+        assertThat(graph.getDependencies(createColumn2)).isEmpty();
+    }
+}
@@ -109,13 +109,41 @@ public class DeltaListTest {
         deltaList.addDelta(dropIndex);
         deltaList.addDelta(createIndex);
 
-        assertThat(deltaList.getDeltas()).containsExactly(createColumn, dropColumn, dropIndex, createIndex);
+        // Deltas are always sorted by priority
+        assertThat(deltaList.getDeltas()).containsExactly(dropIndex, dropColumn, createColumn, createIndex);
 
         deltaList.sort();
         assertThat(deltaList.getDeltas()).containsExactly(dropIndex, dropColumn, createColumn, createIndex);
 
     }
 
+    @Test
+    public void removeIfTest() {
+        DeltaList deltaList = new DeltaList();
+
+        CreateColumnDelta createColumn1 = new CreateColumnDelta(new Keyspace("test"), new Table("table"), new Column("test1", BasicType.VARINT));
+        CreateColumnDelta createColumn2 = new CreateColumnDelta(new Keyspace("test"), new Table("table"), new Column("test2", BasicType.VARINT));
+        DropColumnDelta dropColumn = new DropColumnDelta(new Keyspace("test"), new Table("table"), new Column("test3", BasicType.VARINT));
+
+        deltaList.addDelta(createColumn1);
+        deltaList.addDelta(dropColumn);
+        deltaList.addDelta(createColumn2);
+
+        assertThat(deltaList.getDeltas()).containsExactly(dropColumn, createColumn1, createColumn2);
+        assertThat(deltaList.getDeltaCount(ElementType.COLUMN, DeltaType.CREATE)).isEqualTo(2);
+
+        assertThat(deltaList.removeIf(delta -> delta == createColumn1)).isTrue();
+        assertThat(deltaList.removeIf(delta -> delta == createColumn1)).isFalse();
+
+        assertThat(deltaList.getDeltas()).containsExactly(dropColumn, createColumn2);
+        assertThat(deltaList.getDeltaCount(ElementType.COLUMN, DeltaType.CREATE)).isEqualTo(1);
+        assertThat(deltaList.size()).isEqualTo(2);
+
+        deltaList.removeIf(delta -> delta.getDeltaType() == DeltaType.DROP);
+        assertThat(deltaList.hasDelta(ElementType.COLUMN, DeltaType.DROP)).isFalse();
+        assertThat(deltaList.getDeltas()).containsExactly(createColumn2);
+    }
+
     @Test
     public void hasDeltaTest() {
         DeltaList deltaList = new DeltaList();
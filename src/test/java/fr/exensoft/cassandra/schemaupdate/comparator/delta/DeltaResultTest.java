@@ -1,6 +1,7 @@
 package fr.exensoft.cassandra.schemaupdate.comparator.delta;
 
 
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.CreateColumnDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.CreateIndexDelta;
 import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.DropColumnDelta;
@@ -97,4 +98,62 @@ public class DeltaResultTest {
         assertThat(deltaResult.getTablesDelta()).isEqualTo(tables);
         assertThat(deltaResult.getKeyspace()).isEqualTo("test");
     }
+
+    @Test
+    public void summaryTest() {
+        Keyspace keyspace = new Keyspace("test");
+        Table table = new Table("table1");
+        Column column1 = new Column("column1", BasicType.TEXT);
+        Column column2 = new Column("column2", BasicType.INT);
+
+        DeltaList keyspaceList = new DeltaList();
+        DeltaList table1List = new DeltaList();
+        DeltaList table2List = new DeltaList();
+        DeltaList table3List = new DeltaList();
+
+        Map<String, DeltaList> tables = new HashMap<>();
+        tables.put("table3", table3List);
+        tables.put("table1", table1List);
+        tables.put("table2", table2List);
+
+        table1List.addDelta(new CreateColumnDelta(keyspace, table, column1));
+        table1List.addDelta(new CreateColumnDelta(keyspace, table, column2));
+        table3List.addDelta(new DropColumnDelta(keyspace, table, column1));
+        table3List.addFlag(DeltaFlag.DATA_LOSS);
+
+        DeltaResult deltaResult = new DeltaResult("test", keyspaceList, tables);
+
+        DeltaSummary summary = deltaResult.getSummary();
+        assertThat(summary.getKeyspace()).isEqualTo("test");
+        assertThat(summary.hasUpdate()).isTrue();
+        assertThat(summary.getDeltaCount()).isEqualTo(3);
+        assertThat(summary.getDeltaCount(DeltaType.CREATE)).isEqualTo(2);
+        assertThat(summary.getDeltaCount(DeltaType.DROP)).isEqualTo(1);
+        assertThat(summary.getDeltaCount(DeltaType.RENAME)).isEqualTo(0);
+        assertThat(summary.getTableCount()).isEqualTo(3);
+        assertThat(summary.getDirtyTables()).containsExactly("table1", "table3");
+        assertThat(summary.getFlags()).containsOnly(DeltaFlag.DATA_LOSS);
+        assertThat(deltaResult.getDirtyTables()).containsExactly("table1", "table3");
+
+        // The summary is computed once
+        assertThat(deltaResult.getSummary()).isSameAs(summary);
+
+        // A change in a delta list resets the summary
+        table2List.addDelta(new CreateIndexDelta(keyspace, table, column1, column1));
+        DeltaSummary updated = deltaResult.getSummary();
+        assertThat(updated).isNotSameAs(summary);
+        assertThat(updated.getDeltaCount()).isEqualTo(4);
+        assertThat(updated.getDirtyTables()).containsExactly("table1", "table2", "table3");
+        assertThat(summary.getDeltaCount()).isEqualTo(3);
+    }
+
+    @Test(expected = SchemaUpdateException.class)
+    public void sharedDeltaListTest() {
+        DeltaList keyspaceList = new DeltaList();
+        Map<String, DeltaList> tables = new HashMap<>();
+        tables.put("table1", new DeltaList());
+
+        new DeltaResult("test", keyspaceList, tables);
+        new DeltaResult("test", keyspaceList, new HashMap<>());
+    }
 }
@@ -0,0 +1,129 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.KeyspaceComparator;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.*;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class CQLSchemaLoaderTest {
+
+    private final static String SCHEMA = "CREATE KEYSPACE keyspace1 WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'}  AND durable_writes = true;\n" +
+            "\n" +
+            "CREATE TABLE keyspace1.table1 (\n" +
+            "    column1 uuid PRIMARY KEY,\n" +
+            "    column2 set<text>\n" +
+            ") WITH bloom_filter_fp_chance = 0.01\n" +
+            "    AND comment = 'Table; with \"quotes\" and ''escaped'' quotes'\n" +
+            "    AND compaction = {'class': 'org.apache.cassandra.db.compaction.SizeTieredCompactionStrategy', 'max_threshold': '32'};\n" +
+            "\n" +
+            "-- Comment with a ; inside\n" +
+            "/* Block comment\n" +
+            "   CREATE TABLE keyspace1.ignored (id int PRIMARY KEY); */\n" +
+            "CREATE TABLE keyspace1.\"Table2\" (\n" +
+            "    column1 int,\n" +
+            "    column2 text,\n" +
+            "    \"Column3\" int,\n" +
+            "    column4 text,\n" +
+            "    column5 map<text, frozen<set<int>>>,\n" +
+            "    PRIMARY KEY ((column1), column2, \"Column3\")\n" +
+            ") WITH CLUSTERING ORDER BY (column2 ASC, \"Column3\" DESC)\n" +
+            "    AND gc_grace_seconds = 864000;\n" +
+            "\n" +
+            "CREATE INDEX test_index ON keyspace1.\"Table2\" (column4);\n" +
+            "CREATE INDEX ON keyspace1.\"Table2\" (keys(column5));\n" +
+            "\n" +
+            "CREATE FUNCTION keyspace1.f(input int) RETURNS NULL ON NULL INPUT RETURNS int LANGUAGE java AS $$ return input; $$;\n" +
+            "\n" +
+            "USE keyspace2;\n" +
+            "CREATE TABLE IF NOT EXISTS table3 (a int, b int, c list<int>, PRIMARY KEY ((a, b)));\n";
+
+    @Test
+    public void loadKeyspaceTest() {
+        CQLSchemaLoader loader = new CQLSchemaLoader(new StringReader(SCHEMA));
+
+        assertThat(loader.listKeyspaces()).containsExactly("keyspace1", "keyspace2");
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+        assertThat(keyspace.getTables()).hasSize(2);
+
+        Table table1 = keyspace.getTable("table1");
+        assertThat(table1.getColumns()).hasSize(2);
+        assertThat(table1.getColumn("column1").getType()).isEqualTo(BasicType.UUID);
+        assertThat(table1.getColumn("column2").getType()).isEqualTo(new SetType(BasicType.TEXT));
+        assertThat(table1.getPartitioningKeys()).containsExactly(table1.getColumn("column1"));
+
+        Table table2 = keyspace.getTable("Table2");
+        assertThat(table2.getColumns()).hasSize(5);
+        assertThat(table2.getColumn("column5").getType()).isEqualTo(new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT))));
+        assertThat(table2.getPartitioningKeys()).containsExactly(table2.getColumn("column1"));
+        assertThat(table2.getClusteringColumns()).containsExactly(table2.getColumn("column2"), table2.getColumn("Column3"));
+        assertThat(table2.getSortOrders().get(table2.getColumn("column2"))).isEqualTo(SortOrder.ASC);
+        assertThat(table2.getSortOrders().get(table2.getColumn("Column3"))).isEqualTo(SortOrder.DESC);
+        assertThat(table2.getIndex(table2.getColumn("column4")).getName()).isEqualTo("test_index");
+        assertThat(table2.getIndex(table2.getColumn("column5")).getName()).isEqualTo("Table2_column5_idx");
+        assertThat(table2.getIndex(table2.getColumn("column5")).getOptions()).containsKey(IndexOption.KEYS);
+
+        Table table3 = loader.loadTable("keyspace2", "table3");
+        assertThat(table3.getPartitioningKeys()).containsExactly(table3.getColumn("a"), table3.getColumn("b"));
+        assertThat(table3.getColumn("c").getType()).isEqualTo(new ListType(BasicType.INT));
+
+        assertThat(loader.loadKeyspace("keyspace1", Arrays.asList("table1")).getTables()).hasSize(1);
+        assertThat(loader.loadKeyspace("non_existing_keyspace")).isNull();
+        assertThat(loader.loadTables("non_existing_keyspace")).isNull();
+    }
+
+    @Test
+    public void compareTest() throws Exception {
+        File file = File.createTempFile("schema", ".cql");
+        file.deleteOnExit();
+        Files.write(file.toPath(), SCHEMA.getBytes(StandardCharsets.UTF_8));
+
+        Keyspace source = new CQLSchemaLoader(file.toPath()).loadKeyspace("keyspace2");
+
+        Keyspace target = new Keyspace("keyspace2")
+                .addTable(new Table("table3")
+                        .addColumn(new Column("a", BasicType.INT))
+                        .addColumn(new Column("b", BasicType.INT))
+                        .addColumn(new Column("c", new ListType(BasicType.INT)))
+                        .addPartitioningKey("a")
+                        .addPartitioningKey("b"));
+
+        assertThat(new KeyspaceComparator(source, target).compare().hasUpdate()).isFalse();
+    }
+
+    @Test(expected = SchemaUpdateException.class)
+    public void invalidStatementTest() {
+        new CQLSchemaLoader(new StringReader("CREATE TABLE keyspace1.table1 (column1 int PRIMARY KEY, column2 unknown_type);")).listKeyspaces();
+    }
+
+    @Test
+    public void truncatedIndexTest() {
+        String table = "CREATE KEYSPACE keyspace1 WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n" +
+                "CREATE TABLE keyspace1.table1 (column1 int PRIMARY KEY, column2 map<text, int>);\n";
+
+        for(String index : Arrays.asList("CREATE INDEX;", "CREATE INDEX foo;", "CREATE INDEX x ON keyspace1.table1 (;", "CREATE INDEX x ON keyspace1.table1 (keys(;")) {
+            assertThatThrownBy(() -> new CQLSchemaLoader(new StringReader(table + index)).listKeyspaces())
+                    .isInstanceOf(SchemaUpdateException.class);
+        }
+    }
+
+    @Test(expected = SchemaUpdateException.class)
+    public void noKeyspaceTest() {
+        new CQLSchemaLoader(new StringReader("CREATE TABLE table1 (column1 int PRIMARY KEY);")).listKeyspaces();
+    }
+}
@@ -0,0 +1,119 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+
+import com.datastax.driver.core.Session;
+import fr.exensoft.cassandra.schemaupdate.cluster.CassandraTestUtils;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class CachedSchemaLoaderTest {
+
+    private CassandraTestUtils testUtils = new CassandraTestUtils();
+
+    private Keyspace createKeyspace(String name, Collection<String> tables) {
+        Keyspace keyspace = new Keyspace(name);
+        for(String table : tables) {
+            keyspace.addTable(new Table(table)
+                    .addColumn(new Column("column1", BasicType.INT))
+                    .addPartitioningKey("column1"));
+        }
+        return keyspace;
+    }
+
+    private SchemaLoader createSchemaLoader() {
+        SchemaLoader schemaLoader = Mockito.mock(SchemaLoader.class);
+        Mockito.doAnswer(invocation -> createKeyspace((String) invocation.getArguments()[0], Arrays.asList("table1", "table2")))
+                .when(schemaLoader).loadKeyspace(Mockito.anyString());
+        Mockito.doAnswer(invocation -> createKeyspace((String) invocation.getArguments()[0], (Collection<String>) invocation.getArguments()[1]))
+                .when(schemaLoader).loadKeyspace(Mockito.anyString(), Mockito.anyCollection());
+        return schemaLoader;
+    }
+
+    @Test
+    public void sameVersionTest() {
+        SchemaLoader schemaLoader = createSchemaLoader();
+        Session session = Mockito.mock(Session.class);
+        UUID version = UUID.randomUUID();
+        testUtils.mockSchemaVersion(session, version, version);
+
+        CachedSchemaLoader cachedSchemaLoader = new CachedSchemaLoader(schemaLoader, session);
+
+        Keyspace keyspace1 = cachedSchemaLoader.loadKeyspace("keyspace1");
+        Keyspace keyspace2 = cachedSchemaLoader.loadKeyspace("keyspace1");
+        Keyspace otherKeyspace = cachedSchemaLoader.loadKeyspace("keyspace2");
+
+        assertThat(keyspace2).isSameAs(keyspace1);
+        assertThat(otherKeyspace.getName()).isEqualTo("keyspace2");
+        Mockito.verify(schemaLoader, Mockito.times(1)).loadKeyspace("keyspace1");
+        Mockito.verify(schemaLoader, Mockito.times(1)).loadKeyspace("keyspace2");
+    }
+
+    @Test
+    public void versionChangeTest() {
+        SchemaLoader schemaLoader = createSchemaLoader();
+        Session session = Mockito.mock(Session.class);
+        testUtils.mockSchemaVersion(session, UUID.randomUUID());
+
+        CachedSchemaLoader cachedSchemaLoader = new CachedSchemaLoader(schemaLoader, session);
+
+        Keyspace keyspace1 = cachedSchemaLoader.loadKeyspace("keyspace1");
+
+        testUtils.mockSchemaVersion(session, UUID.randomUUID());
+
+        Keyspace keyspace2 = cachedSchemaLoader.loadKeyspace("keyspace1");
+
+        assertThat(keyspace2).isNotSameAs(keyspace1);
+        Mockito.verify(schemaLoader, Mockito.times(2)).loadKeyspace("keyspace1");
+    }
+
+    @Test
+    public void noSchemaAgreementTest() {
+        SchemaLoader schemaLoader = createSchemaLoader();
+        Session session = Mockito.mock(Session.class);
+        testUtils.mockSchemaVersion(session, UUID.randomUUID(), UUID.randomUUID());
+
+        CachedSchemaLoader cachedSchemaLoader = new CachedSchemaLoader(schemaLoader, session);
+
+        cachedSchemaLoader.loadKeyspace("keyspace1");
+        cachedSchemaLoader.loadKeyspace("keyspace1");
+
+        Mockito.verify(schemaLoader, Mockito.times(2)).loadKeyspace("keyspace1");
+    }
+
+    @Test
+    public void selectedTablesTest() {
+        SchemaLoader schemaLoader = createSchemaLoader();
+        Session session = Mockito.mock(Session.class);
+        testUtils.mockSchemaVersion(session, UUID.randomUUID());
+
+        CachedSchemaLoader cachedSchemaLoader = new CachedSchemaLoader(schemaLoader, session);
+
+        // Partial snapshot is reused for the same tables only
+        Keyspace keyspace1 = cachedSchemaLoader.loadKeyspace("keyspace1", Arrays.asList("table1"));
+        Keyspace keyspace2 = cachedSchemaLoader.loadKeyspace("keyspace1", Arrays.asList("table1"));
+        assertThat(keyspace2).isSameAs(keyspace1);
+        assertThat(keyspace1.getTables()).hasSize(1);
+
+        Keyspace complete = cachedSchemaLoader.loadKeyspace("keyspace1");
+        assertThat(complete.getTables()).hasSize(2);
+
+        // Complete snapshot is filtered
+        Keyspace filtered = cachedSchemaLoader.loadKeyspace("keyspace1", Arrays.asList("table2"));
+        assertThat(filtered.getTables()).hasSize(1);
+        assertThat(filtered.getTable("table2")).isSameAs(complete.getTable("table2"));
+        assertThat(complete.getTable("table2").getKeyspace()).isSameAs(complete);
+
+        Mockito.verify(schemaLoader, Mockito.times(1)).loadKeyspace(Mockito.eq("keyspace1"), Mockito.anyCollection());
+        Mockito.verify(schemaLoader, Mockito.times(1)).loadKeyspace("keyspace1");
+    }
+}
@@ -0,0 +1,58 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+
+import fr.exensoft.cassandra.schemaupdate.cluster.CassandraClusterMock;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.LazyKeyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.*;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class ClusterSchemaLoaderTest {
+
+    @Test
+    public void loadKeyspaceTest() {
+        ClusterSchemaLoader loader = new ClusterSchemaLoader(new CassandraClusterMock().createCluster());
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+
+        // Tables are converted on demand
+        assertThat(keyspace).isInstanceOf(LazyKeyspace.class);
+        assertThat(keyspace.getTableNames()).containsExactly("table1", "table2");
+        assertThat(((LazyKeyspace) keyspace).isLoaded("table2")).isFalse();
+
+        Table table2 = keyspace.getTable("table2");
+        assertThat(table2.getColumn("column1").getType()).isEqualTo(BasicType.INT);
+        assertThat(table2.getColumn("column6").getType()).isEqualTo(new ListType(BasicType.TEXT));
+        assertThat(table2.getColumn("column7").getType()).isEqualTo(new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT))));
+        assertThat(table2.getSortOrders().get(table2.getColumn("column3"))).isEqualTo(SortOrder.DESC);
+        assertThat(((LazyKeyspace) keyspace).isLoaded("table1")).isFalse();
+    }
+
+    @Test
+    public void loadKeyspaceTest_LargeKeyspace() {
+        ClusterSchemaLoader loader = new ClusterSchemaLoader(new CassandraClusterMock().createLargeCluster(40, 50));
+
+        List<Table> tables = loader.loadTables("large_keyspace");
+
+        // Tables keep the metadata order
+        assertThat(tables).hasSize(40);
+        for(int i=0;i<tables.size();i++) {
+            Table table = tables.get(i);
+            assertThat(table.getName()).isEqualTo("table"+i);
+            assertThat(table.getColumns()).hasSize(50);
+            assertThat(table.getColumn("column3").getType()).isEqualTo(new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT))));
+            assertThat(table.getPartitioningKeys()).containsExactly(table.getColumn("column0"));
+            assertThat(table.getSortOrders().get(table.getColumn("column1"))).isEqualTo(SortOrder.DESC);
+        }
+
+        Keyspace keyspace = loader.loadKeyspace("large_keyspace", Arrays.asList("table3", "table30", "non_existing_table"));
+        assertThat(keyspace.getTables()).hasSize(2);
+    }
+}
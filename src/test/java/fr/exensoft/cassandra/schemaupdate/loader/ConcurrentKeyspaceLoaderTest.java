@@ -0,0 +1,109 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.LazyKeyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class ConcurrentKeyspaceLoaderTest {
+
+    @Test
+    public void loadKeyspacesTest() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        SchemaLoader schemaLoader = Mockito.mock(SchemaLoader.class);
+        Mockito.doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            String name = (String) invocation.getArguments()[0];
+            return name.startsWith("missing") ? null : new Keyspace(name);
+        }).when(schemaLoader).loadKeyspace(Mockito.anyString());
+
+        List<String> names = new ArrayList<>();
+        for(int i=0;i<20;i++) {
+            names.add("keyspace"+i);
+        }
+        names.add("missing_keyspace");
+
+        Map<String, Keyspace> keyspaces = new ConcurrentKeyspaceLoader(schemaLoader, 4).loadKeyspaces(names);
+
+        assertThat(keyspaces).hasSize(20);
+        assertThat(keyspaces.get("keyspace7").getName()).isEqualTo("keyspace7");
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(4);
+        Mockito.verify(schemaLoader, Mockito.times(21)).loadKeyspace(Mockito.anyString());
+    }
+
+    @Test
+    public void completionOrderTest() {
+        CountDownLatch slowKeyspace = new CountDownLatch(1);
+
+        SchemaLoader schemaLoader = Mockito.mock(SchemaLoader.class);
+        Mockito.doAnswer(invocation -> {
+            String name = (String) invocation.getArguments()[0];
+            if("slow".equals(name)) {
+                slowKeyspace.await(5, TimeUnit.SECONDS);
+            }
+            return new Keyspace(name);
+        }).when(schemaLoader).loadKeyspace(Mockito.anyString());
+
+        List<String> loaded = new ArrayList<>();
+        new ConcurrentKeyspaceLoader(schemaLoader, 2).loadKeyspaces(Arrays.asList("slow", "fast"), (name, keyspace) -> {
+            loaded.add(name);
+            slowKeyspace.countDown();
+        });
+
+        assertThat(loaded).containsExactly("fast", "slow");
+    }
+
+    @Test
+    public void lazyKeyspaceTest() {
+        Set<Thread> conversionThreads = ConcurrentHashMap.newKeySet();
+
+        SchemaLoader schemaLoader = Mockito.mock(SchemaLoader.class);
+        Mockito.doAnswer(invocation -> new LazyKeyspace((String) invocation.getArguments()[0], Arrays.asList("table1", "table2"), table -> {
+            conversionThreads.add(Thread.currentThread());
+            return new Table(table).addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id");
+        })).when(schemaLoader).loadKeyspace(Mockito.anyString());
+
+        // Tables are built on demand by default
+        new ConcurrentKeyspaceLoader(schemaLoader, 2).loadKeyspaces(Arrays.asList("keyspace1", "keyspace2", "keyspace3"), (name, keyspace) -> {
+            assertThat(((LazyKeyspace) keyspace).isLoaded("table1")).isFalse();
+            assertThat(((LazyKeyspace) keyspace).isLoaded("table2")).isFalse();
+        });
+
+        assertThat(conversionThreads).isEmpty();
+
+        // Tables are built by the loading threads, not by the consumer
+        new ConcurrentKeyspaceLoader(schemaLoader, 2)
+                .setBuildTables(true)
+                .loadKeyspaces(Arrays.asList("keyspace1", "keyspace2", "keyspace3"), (name, keyspace) -> {
+                    assertThat(((LazyKeyspace) keyspace).isLoaded("table1")).isTrue();
+                    assertThat(((LazyKeyspace) keyspace).isLoaded("table2")).isTrue();
+                });
+
+        assertThat(conversionThreads).isNotEmpty().doesNotContain(Thread.currentThread());
+    }
+
+    @Test(expected = SchemaUpdateException.class)
+    public void loadErrorTest() {
+        SchemaLoader schemaLoader = Mockito.mock(SchemaLoader.class);
+        Mockito.doThrow(new SchemaUpdateException("error")).when(schemaLoader).loadKeyspace(Mockito.eq("keyspace2"));
+
+        new ConcurrentKeyspaceLoader(schemaLoader, 2).loadKeyspaces(Arrays.asList("keyspace1", "keyspace2", "keyspace3"));
+    }
+}
@@ -0,0 +1,74 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+
+import fr.exensoft.cassandra.schemaupdate.cluster.SystemSchemaMock;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.*;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class LegacySchemaLoaderTest {
+
+    @Test
+    public void listKeyspacesTest() {
+        LegacySchemaLoader loader = new LegacySchemaLoader(new SystemSchemaMock().createSession());
+
+        assertThat(loader.listKeyspaces()).containsOnly("keyspace1", "keyspace2");
+    }
+
+    @Test
+    public void loadKeyspaceTest() {
+        LegacySchemaLoader loader = new LegacySchemaLoader(new SystemSchemaMock().createSession());
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+
+        assertThat(keyspace.getTables()).extracting("name").containsExactly("table1", "table2");
+
+        Table table1 = keyspace.getTable("table1");
+        assertThat(table1.getColumn("column1").getType()).isEqualTo(BasicType.UUID);
+        assertThat(table1.getColumn("column2").getType()).isEqualTo(new SetType(BasicType.TEXT));
+        assertThat(table1.getPartitioningKeys()).containsExactly(table1.getColumn("column1"));
+
+        Table table2 = keyspace.getTable("table2");
+        assertThat(table2.getColumns()).hasSize(7);
+        assertThat(table2.getColumn("column7").getType()).isEqualTo(new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT))));
+        assertThat(table2.getClusteringColumns()).containsExactly(table2.getColumn("column2"), table2.getColumn("column3"));
+        assertThat(table2.getColumn("column3").getType()).isEqualTo(BasicType.INT);
+        assertThat(table2.getSortOrders().get(table2.getColumn("column2"))).isEqualTo(SortOrder.ASC);
+        assertThat(table2.getSortOrders().get(table2.getColumn("column3"))).isEqualTo(SortOrder.DESC);
+        assertThat(table2.getIndex(table2.getColumn("column5")).getName()).isEqualTo("test_index");
+        assertThat(table2.getIndex(table2.getColumn("column5")).getOptions()).doesNotContainKey(IndexOption.KEYS);
+
+        assertThat(loader.loadKeyspace("non_existing_keyspace")).isNull();
+    }
+
+    @Test
+    public void loadTableTest_MapIndexes() {
+        LegacySchemaLoader loader = new LegacySchemaLoader(new SystemSchemaMock().createSession());
+
+        Table table = loader.loadTable("keyspace2", "table1");
+
+        assertThat(table.getIndex(table.getColumn("column2")).getName()).isEqualTo("keys_index");
+        assertThat(table.getIndex(table.getColumn("column2")).getOptions()).containsKey(IndexOption.KEYS);
+
+        // index_keys_and_values is not a keys index
+        assertThat(table.getIndex(table.getColumn("column3")).getName()).isEqualTo("entries_index");
+        assertThat(table.getIndex(table.getColumn("column3")).getOptions()).doesNotContainKey(IndexOption.KEYS);
+    }
+
+    @Test
+    public void loadTableTest() {
+        LegacySchemaLoader loader = new LegacySchemaLoader(new SystemSchemaMock().createSession());
+
+        assertThat(loader.loadTable("keyspace1", "table1").getColumns()).hasSize(2);
+        assertThat(loader.loadTable("keyspace1", "non_existing_table")).isNull();
+        assertThat(loader.loadTables("non_existing_keyspace")).isNull();
+        assertThat(loader.loadKeyspace("keyspace1", Arrays.asList("table2")).getTables()).hasSize(1);
+    }
+}
@@ -0,0 +1,151 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.TableMetadata;
+import fr.exensoft.cassandra.schemaupdate.cluster.CassandraClusterMock;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class ListeningSchemaLoaderTest {
+
+    private CassandraClusterMock clusterMock = new CassandraClusterMock();
+
+    @Test
+    public void loadKeyspaceTest() {
+        Cluster cluster = clusterMock.createCluster();
+        ListeningSchemaLoader loader = new ListeningSchemaLoader(cluster);
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+
+        assertThat(keyspace.getTables()).hasSize(2);
+        assertThat(loader.loadKeyspace("keyspace1")).isSameAs(keyspace);
+        assertThat(loader.loadKeyspace("keyspace1", Arrays.asList("table2")).getTables()).hasSize(1);
+        assertThat(loader.loadKeyspace("non_existing_keyspace")).isNull();
+
+        // Metadata is converted once
+        Mockito.verify(cluster, Mockito.times(2)).getMetadata();
+    }
+
+    @Test
+    public void tableEventsTest() {
+        ListeningSchemaLoader loader = new ListeningSchemaLoader(clusterMock.createCluster());
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+        Table table1 = keyspace.getTable("table1");
+        Table table2 = keyspace.getTable("table2");
+
+        // Table added
+        TableMetadata table3 = clusterMock.createSimpleTableMetadata("keyspace1", "table3", DataType.cint(), DataType.text());
+        loader.onTableAdded(table3);
+
+        Keyspace updatedKeyspace = loader.loadKeyspace("keyspace1");
+        assertThat(updatedKeyspace).isNotSameAs(keyspace);
+        assertThat(updatedKeyspace.getTables()).extracting("name").containsExactly("table1", "table2", "table3");
+        assertThat(updatedKeyspace.getTable("table1")).isSameAs(table1);
+        assertThat(updatedKeyspace.getTable("table3").getColumn("column2").getType()).isEqualTo(BasicType.TEXT);
+
+        // Previous keyspace is not modified
+        assertThat(keyspace.getTables()).hasSize(2);
+
+        // Table changed
+        loader.onTableChanged(clusterMock.createSimpleTableMetadata("keyspace1", "table2", DataType.uuid()), clusterMock.createSimpleTableMetadata("keyspace1", "table2", DataType.cint()));
+        updatedKeyspace = loader.loadKeyspace("keyspace1");
+        assertThat(updatedKeyspace.getTable("table2")).isNotSameAs(table2);
+        assertThat(updatedKeyspace.getTable("table2").getColumns()).hasSize(1);
+        assertThat(updatedKeyspace.getTable("table1")).isSameAs(table1);
+
+        // Table removed
+        loader.onTableRemoved(table3);
+        assertThat(loader.loadKeyspace("keyspace1").getTables()).extracting("name").containsExactly("table1", "table2");
+
+        // Events of other keyspaces are ignored
+        loader.onTableAdded(clusterMock.createSimpleTableMetadata("keyspace2", "table1", DataType.cint()));
+        assertThat(loader.loadKeyspace("keyspace1").getTables()).hasSize(2);
+    }
+
+    @Test
+    public void tableEventDuringLoadTest() throws Exception {
+        Cluster cluster = clusterMock.createCluster();
+        Metadata metadata = cluster.getMetadata();
+        ListeningSchemaLoader loader = new ListeningSchemaLoader(cluster);
+
+        // A table event is received while the keyspace is converted
+        AtomicBoolean eventSent = new AtomicBoolean();
+        CountDownLatch eventHandled = new CountDownLatch(1);
+        AtomicBoolean eventBlocked = new AtomicBoolean();
+        Mockito.doAnswer(invocation -> {
+            if(eventSent.compareAndSet(false, true)) {
+                new Thread(() -> {
+                    loader.onTableChanged(
+                            clusterMock.createSimpleTableMetadata("keyspace1", "table2", DataType.uuid()),
+                            clusterMock.createSimpleTableMetadata("keyspace1", "table2", DataType.cint()));
+                    eventHandled.countDown();
+                }).start();
+                eventBlocked.set(!eventHandled.await(5, TimeUnit.SECONDS));
+            }
+            return metadata;
+        }).when(cluster).getMetadata();
+
+        loader.loadKeyspace("keyspace1");
+
+        // The event thread is not blocked by the conversion
+        assertThat(eventBlocked.get()).isFalse();
+
+        // The event is not lost
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+        assertThat(keyspace.getTable("table2").getColumns()).hasSize(1);
+        assertThat(keyspace.getTable("table1").getColumns()).hasSize(2);
+    }
+
+    @Test
+    public void keyspaceRemovedDuringLoadTest() {
+        Cluster cluster = clusterMock.createCluster();
+        Metadata metadata = cluster.getMetadata();
+        ListeningSchemaLoader loader = new ListeningSchemaLoader(cluster);
+
+        KeyspaceMetadata keyspaceMetadata = Mockito.mock(KeyspaceMetadata.class);
+        Mockito.doReturn("keyspace1").when(keyspaceMetadata).getName();
+
+        // The keyspace is removed while it is converted
+        AtomicBoolean removed = new AtomicBoolean();
+        Mockito.doAnswer(invocation -> {
+            if(removed.compareAndSet(false, true)) {
+                loader.onKeyspaceRemoved(keyspaceMetadata);
+            }
+            return metadata;
+        }).when(cluster).getMetadata();
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+
+        // The converted keyspace is returned but not kept
+        assertThat(keyspace.getTables()).hasSize(2);
+        assertThat(loader.loadKeyspace("keyspace1")).isNotSameAs(keyspace);
+    }
+
+    @Test
+    public void keyspaceRemovedTest() {
+        ListeningSchemaLoader loader = new ListeningSchemaLoader(clusterMock.createCluster());
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+
+        KeyspaceMetadata keyspaceMetadata = Mockito.mock(KeyspaceMetadata.class);
+        Mockito.doReturn("keyspace1").when(keyspaceMetadata).getName();
+        loader.onKeyspaceRemoved(keyspaceMetadata);
+
+        assertThat(loader.loadKeyspace("keyspace1")).isNotSameAs(keyspace);
+    }
+}
@@ -0,0 +1,97 @@
+package fr.exensoft.cassandra.schemaupdate.loader;
+
+
+import fr.exensoft.cassandra.schemaupdate.cluster.SystemSchemaMock;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.*;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SystemSchemaLoaderTest {
+
+    @Test
+    public void listKeyspacesTest() {
+        SystemSchemaLoader loader = new SystemSchemaLoader(new SystemSchemaMock().createSession());
+
+        assertThat(loader.listKeyspaces()).containsOnly("keyspace1", "keyspace2");
+    }
+
+    @Test
+    public void loadTablesTest() {
+        SystemSchemaLoader loader = new SystemSchemaLoader(new SystemSchemaMock().createSession());
+
+        assertThat(loader.loadTables("non_existing_keyspace")).isNull();
+
+        List<Table> tables = loader.loadTables("keyspace1");
+
+        assertThat(tables).hasSize(2);
+        assertThat(tables.get(0).getName()).isEqualTo("table1");
+        assertThat(tables.get(1).getName()).isEqualTo("table2");
+    }
+
+    @Test
+    public void loadTableTest() {
+        SystemSchemaLoader loader = new SystemSchemaLoader(new SystemSchemaMock().createSession());
+
+        assertThat(loader.loadTable("keyspace1", "non_existing_table")).isNull();
+        assertThat(loader.loadTable("non_existing_keyspace", "table1")).isNull();
+
+        Table table = loader.loadTable("keyspace1", "table2");
+
+        assertThat(table).isNotNull();
+        assertThat(table.getColumns()).hasSize(7);
+        assertThat(table.getIndexes()).hasSize(1);
+        assertThat(table.getIndex(table.getColumn("column5")).getName()).isEqualTo("test_index");
+    }
+
+    @Test
+    public void loadKeyspaceTest() {
+        SystemSchemaLoader loader = new SystemSchemaLoader(new SystemSchemaMock().createSession());
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1");
+
+        assertThat(keyspace.getTables()).hasSize(2);
+
+        Table table1 = keyspace.getTable("table1");
+        assertThat(table1.getColumns()).hasSize(2);
+        assertThat(table1.getColumn("column1").getType()).isEqualTo(BasicType.UUID);
+        assertThat(table1.getColumn("column2").getType()).isEqualTo(new SetType(BasicType.TEXT));
+        assertThat(table1.getClusteringColumns()).isEmpty();
+        assertThat(table1.getPartitioningKeys()).containsOnly(table1.getColumn("column1"));
+        assertThat(table1.getIndexes()).isEmpty();
+
+        Table table2 = keyspace.getTable("table2");
+        assertThat(table2.getColumns()).hasSize(7);
+        assertThat(table2.getColumn("column1").getType()).isEqualTo(BasicType.INT);
+        assertThat(table2.getColumn("column2").getType()).isEqualTo(BasicType.TEXT);
+        assertThat(table2.getColumn("column3").getType()).isEqualTo(BasicType.INT);
+        assertThat(table2.getColumn("column6").getType()).isEqualTo(new ListType(BasicType.TEXT));
+        assertThat(table2.getColumn("column7").getType()).isEqualTo(new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT))));
+        assertThat(table2.getPartitioningKeys()).containsExactly(table2.getColumn("column1"));
+        assertThat(table2.getClusteringColumns()).containsExactly(table2.getColumn("column2"), table2.getColumn("column3"));
+        assertThat(table2.getSortOrders().get(table2.getColumn("column2"))).isEqualTo(SortOrder.ASC);
+        assertThat(table2.getSortOrders().get(table2.getColumn("column3"))).isEqualTo(SortOrder.DESC);
+        assertThat(table2.getIndex(table2.getColumn("column5")).getName()).isEqualTo("test_index");
+
+        assertThat(loader.loadKeyspace("non_existing_keyspace")).isNull();
+    }
+
+    @Test
+    public void loadKeyspaceTest_SelectedTables() {
+        SystemSchemaLoader loader = new SystemSchemaLoader(new SystemSchemaMock().createSession());
+
+        Keyspace keyspace = loader.loadKeyspace("keyspace1", Arrays.asList("table2", "non_existing_table"));
+
+        assertThat(keyspace.getTables()).hasSize(1);
+        assertThat(keyspace.getTable("table2").getColumns()).hasSize(7);
+        assertThat(keyspace.getTable("table2").getIndexes()).hasSize(1);
+
+        assertThat(loader.loadKeyspace("non_existing_keyspace", Arrays.asList("table1"))).isNull();
+    }
+}
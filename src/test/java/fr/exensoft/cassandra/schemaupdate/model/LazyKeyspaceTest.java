@@ -0,0 +1,87 @@
+package fr.exensoft.cassandra.schemaupdate.model;
+
+import fr.exensoft.cassandra.schemaupdate.comparator.KeyspaceComparator;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class LazyKeyspaceTest {
+
+    private List<String> builtTables = new ArrayList<>();
+
+    private Table buildTable(String name) {
+        if("dropped_table".equals(name)) {
+            return null;
+        }
+        builtTables.add(name);
+        return new Table(name)
+                .addColumn(new Column("column1", BasicType.INT))
+                .addPartitioningKey("column1");
+    }
+
+    @Test
+    public void getTableTest() {
+        LazyKeyspace keyspace = new LazyKeyspace("keyspace1", Arrays.asList("table1", "table2", "dropped_table"), this::buildTable);
+
+        assertThat(keyspace.getTableNames()).containsExactly("table1", "table2", "dropped_table");
+        assertThat(keyspace.hasTable("table2")).isTrue();
+        assertThat(builtTables).isEmpty();
+
+        Table table = keyspace.getTable("table2");
+        assertThat(table.getKeyspace()).isSameAs(keyspace);
+        assertThat(keyspace.getTable("table2")).isSameAs(table);
+        assertThat(keyspace.isLoaded("table1")).isFalse();
+        assertThat(keyspace.getTable("table3")).isNull();
+        assertThat(builtTables).containsExactly("table2");
+
+        assertThat(keyspace.getTables()).extracting("name").containsExactly("table1", "table2");
+        assertThat(builtTables).containsExactly("table2", "table1");
+
+        keyspace.addTable(new Table("table3")
+                .addColumn(new Column("column1", BasicType.INT))
+                .addPartitioningKey("column1"));
+        assertThat(keyspace.getTableNames()).containsExactly("table1", "table2", "dropped_table", "table3");
+    }
+
+    @Test
+    public void compareTest() {
+        LazyKeyspace source = new LazyKeyspace("keyspace1", Arrays.asList("table1", "table2", "table3"), this::buildTable);
+
+        Keyspace target = new Keyspace("keyspace1")
+                .addTable(buildTable("table1"));
+        builtTables.clear();
+
+        DeltaResult result = new KeyspaceComparator(source, target)
+                .setDetectDroppedTables(false)
+                .compare();
+
+        assertThat(result.hasUpdate()).isFalse();
+        assertThat(builtTables).containsExactly("table1");
+
+        result = new KeyspaceComparator(source, target).compare();
+
+        assertThat(result.getTablesDelta()).containsOnlyKeys("table1", "table2", "table3");
+        assertThat(builtTables).containsExactly("table1", "table2", "table3");
+    }
+
+    @Test
+    public void compareTest_TableDroppedWhileLoading() {
+        // dropped_table is listed but its loader returns null
+        LazyKeyspace source = new LazyKeyspace("keyspace1", Arrays.asList("table1", "dropped_table", "table2"), this::buildTable);
+
+        Keyspace target = new Keyspace("keyspace1")
+                .addTable(buildTable("table1"));
+
+        DeltaResult result = new KeyspaceComparator(source, target).compare();
+
+        assertThat(result.getTablesDelta()).containsOnlyKeys("table1", "table2");
+        assertThat(result.getTablesDelta().get("table1").hasUpdate()).isFalse();
+        assertThat(result.getTablesDelta().get("table2").hasUpdate()).isTrue();
+    }
+}
@@ -2,10 +2,14 @@ package fr.exensoft.cassandra.schemaupdate.model;
 
 
 import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.TableComparator;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
 import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
 import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -88,4 +92,154 @@ public class TableTest {
                 .isInstanceOf(SchemaUpdateException.class);
     }
 
+    @Test
+    public void tableLookupTest() {
+        Column column1 = new Column("column1", BasicType.TEXT);
+        Column column2 = new Column("column2", BasicType.TEXT);
+        Column column3 = new Column("column3", BasicType.TEXT);
+
+        Table table = new Table("test_table")
+                .addColumn(column3)
+                .addColumn(column2)
+                .addColumn(column1)
+                .addPartitioningKey("column1")
+                .addClusteringColumn("column2");
+
+        assertThat(table.isPartitioningKey(column1)).isTrue();
+        assertThat(table.isPartitioningKey(column2)).isFalse();
+        assertThat(table.isClusteringColumn(column2)).isTrue();
+        assertThat(table.isClusteringColumn(column3)).isFalse();
+        assertThat(table.isPartitioningKey(new Column("column1", BasicType.TEXT))).isFalse();
+
+        assertThat(table.getColumn("unknown")).isNull();
+        assertThat(table.getIndex(column3)).isNull();
+
+        table.validate();
+        assertThat(table.getColumns()).containsExactly(column1, column2, column3);
+
+        // A validated table is not sorted again
+        List<Column> columns = table.getColumns();
+        table.validate();
+        assertThat(table.getColumns()).containsExactly(column1, column2, column3);
+        assertThat(columns).containsExactly(column1, column2, column3);
+
+        assertThatThrownBy(()->table.getColumns().add(new Column("column4", BasicType.TEXT)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void keyspaceLookupTest() {
+        Table table1 = new Table("table1").addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id");
+        Table table2 = new Table("table2").addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id");
+
+        Keyspace keyspace = new Keyspace("keyspace")
+                .addTable(table1)
+                .addTable(table2);
+
+        assertThat(keyspace.getTable("table1")).isSameAs(table1);
+        assertThat(keyspace.getTable("table2")).isSameAs(table2);
+        assertThat(keyspace.getTable("table3")).isNull();
+        assertThat(keyspace.hasTable("table2")).isTrue();
+        assertThat(keyspace.hasTable("table3")).isFalse();
+        assertThat(keyspace.getTableNames()).containsExactly("table1", "table2");
+    }
+
+    @Test
+    public void keyspaceTableAlreadyExistsTest() {
+        Table table1 = new Table("table1").addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id");
+        Table otherTable1 = new Table("table1").addColumn(new Column("id", BasicType.TEXT)).addPartitioningKey("id");
+
+        Keyspace keyspace = new Keyspace("keyspace").addTable(table1);
+
+        assertThatThrownBy(() -> keyspace.addTable(otherTable1)).isInstanceOf(SchemaUpdateException.class);
+
+        // getTables and getTable still agree
+        assertThat(keyspace.getTables()).containsExactly(table1);
+        assertThat(keyspace.getTable("table1")).isSameAs(table1);
+        assertThat(otherTable1.getKeyspace()).isNull();
+
+        // Same behavior for a lazy keyspace, whether the table is already built or not
+        LazyKeyspace lazyKeyspace = new LazyKeyspace("keyspace", Arrays.asList("table1", "table2"),
+                name -> new Table(name).addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id"));
+        Table lazyTable1 = lazyKeyspace.getTable("table1");
+        Table otherTable2 = new Table("table2").addColumn(new Column("id", BasicType.TEXT)).addPartitioningKey("id");
+
+        assertThatThrownBy(() -> lazyKeyspace.addTable(otherTable1)).isInstanceOf(SchemaUpdateException.class);
+        assertThatThrownBy(() -> lazyKeyspace.addTable(otherTable2)).isInstanceOf(SchemaUpdateException.class);
+
+        assertThat(lazyKeyspace.getTableNames()).containsExactly("table1", "table2");
+        assertThat(lazyKeyspace.getTable("table1")).isSameAs(lazyTable1);
+        assertThat(lazyKeyspace.getTable("table2").getColumn("id").getType()).isEqualTo(BasicType.INT);
+        assertThat(otherTable1.getKeyspace()).isNull();
+        assertThat(otherTable2.getKeyspace()).isNull();
+    }
+
+    @Test
+    public void keyspaceSharedTablesTest() {
+        Table table1 = new Table("table1").addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id");
+        Table table2 = new Table("table2").addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id");
+        Table newTable2 = new Table("table2").addColumn(new Column("id", BasicType.TEXT)).addPartitioningKey("id");
+
+        Keyspace keyspace = new Keyspace("keyspace")
+                .addTable(table1)
+                .addTable(table2);
+
+        // Selected tables still belong to the original keyspace
+        Keyspace selected = keyspace.select(Arrays.asList("table2", "table3"));
+        assertThat(selected.getTables()).containsExactly(table2);
+        assertThat(table2.getKeyspace()).isSameAs(keyspace);
+
+        // Replaced table belongs to the copy, the others are not modified
+        Keyspace copy = keyspace.withTable("table2", newTable2);
+        assertThat(copy.getTables()).containsExactly(table1, newTable2);
+        assertThat(copy.getTable("table2")).isSameAs(newTable2);
+        assertThat(newTable2.getKeyspace()).isSameAs(copy);
+        assertThat(table1.getKeyspace()).isSameAs(keyspace);
+        assertThat(keyspace.getTable("table2")).isSameAs(table2);
+
+        assertThat(copy.withTable("table1", null).getTableNames()).containsExactly("table2");
+        Table table3 = new Table("table3").addColumn(new Column("id", BasicType.INT)).addPartitioningKey("id");
+        assertThat(copy.withTable("table3", table3).getTableNames()).containsExactly("table1", "table2", "table3");
+    }
+
+    private Table createFingerprintTable() {
+        return new Table("test_table")
+                .addColumn(new Column("column1", BasicType.TEXT))
+                .addColumn(new Column("column2", BasicType.INT))
+                .addColumn(new Column("column3", BasicType.TEXT))
+                .addPartitioningKey("column1")
+                .addClusteringColumn("column2", SortOrder.DESC)
+                .addIndex("test_table_column3_idx", "column3");
+    }
+
+    @Test
+    public void tableFingerprintTest() {
+        Table table1 = createFingerprintTable();
+        Table table2 = createFingerprintTable();
+
+        assertThat(table1.getFingerprint()).isEqualTo(table2.getFingerprint());
+
+        // The cached fingerprint is reset when the table is modified
+        String fingerprint = table1.getFingerprint();
+        table1.setOrder("column2", SortOrder.ASC);
+        assertThat(table1.getFingerprint()).isNotEqualTo(fingerprint);
+
+        table2.addColumn(new Column("column4", BasicType.TEXT));
+        assertThat(table2.getFingerprint()).isNotEqualTo(fingerprint);
+
+        Table table3 = createFingerprintTable();
+        table3.addIndex("other_index", "column2");
+        assertThat(table3.getFingerprint()).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    public void tableFingerprintTest_NonClusteringSortOrder() {
+        Table table1 = createFingerprintTable();
+        Table table2 = createFingerprintTable()
+                .setOrder("column3", SortOrder.DESC);
+
+        // The comparator compares the sort orders of all the columns
+        assertThat(new TableComparator(table1, table2).compare().hasFlag(DeltaFlag.NEED_RECREATE)).isTrue();
+        assertThat(table1.getFingerprint()).isNotEqualTo(table2.getFingerprint());
+    }
 }
@@ -0,0 +1,49 @@
+package fr.exensoft.cassandra.schemaupdate.model.type;
+
+import fr.exensoft.cassandra.schemaupdate.utils.CQLTypeConverter;
+import org.junit.Test;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class TypeInternerTest {
+
+    @Test
+    public void internTest() {
+        assertThat(ListType.of(BasicType.INT)).isSameAs(ListType.of(BasicType.INT));
+        assertThat(SetType.of(BasicType.TEXT)).isSameAs(SetType.of(BasicType.TEXT));
+        assertThat(MapType.of(BasicType.INT, BasicType.TEXT)).isSameAs(MapType.of(BasicType.INT, BasicType.TEXT));
+        assertThat(FrozenType.of(ListType.of(BasicType.INT))).isSameAs(FrozenType.of(ListType.of(BasicType.INT)));
+
+        assertThat(ListType.of(BasicType.INT)).isNotSameAs(SetType.of(BasicType.INT));
+        assertThat(MapType.of(BasicType.INT, BasicType.TEXT)).isNotSameAs(MapType.of(BasicType.TEXT, BasicType.INT));
+
+        assertThat(TypeInterner.intern(BasicType.BLOB)).isSameAs(BasicType.BLOB);
+        assertThat(TypeInterner.intern((ColumnType) null)).isNull();
+    }
+
+    @Test
+    public void internInnerTypesTest() {
+        // Types built with the constructors are interned with their inner types
+        MapType type = TypeInterner.intern(new MapType(BasicType.UUID, new ListType(new SetType(BasicType.BIGINT))));
+
+        assertThat(type).isSameAs(MapType.of(BasicType.UUID, ListType.of(SetType.of(BasicType.BIGINT))));
+        assertThat(type.getValueType()).isSameAs(ListType.of(SetType.of(BasicType.BIGINT)));
+        assertThat(((ListType) type.getValueType()).getInnerType()).isSameAs(SetType.of(BasicType.BIGINT));
+    }
+
+    @Test
+    public void equalsHashCodeTest() {
+        ColumnType type1 = new MapType(BasicType.INT, new FrozenType(new ListType(BasicType.TEXT)));
+        ColumnType type2 = new MapType(BasicType.INT, new FrozenType(new ListType(BasicType.TEXT)));
+
+        assertThat(type1).isNotSameAs(type2);
+        assertThat(type1).isEqualTo(type2);
+        assertThat(type1.hashCode()).isEqualTo(type2.hashCode());
+    }
+
+    @Test
+    public void converterTest() {
+        assertThat(CQLTypeConverter.cqlToType("map<int, frozen<list<text>>>"))
+                .isSameAs(CQLTypeConverter.cqlToType("map<int,frozen<list<text>>>"));
+    }
+}
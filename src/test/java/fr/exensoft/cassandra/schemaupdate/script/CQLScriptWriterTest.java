@@ -0,0 +1,101 @@
+package fr.exensoft.cassandra.schemaupdate.script;
+
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaList;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.DeltaResult;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.columns.DropColumnDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.enums.DeltaFlag;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.keyspace.CreateKeyspaceDelta;
+import fr.exensoft.cassandra.schemaupdate.comparator.delta.table.CreateTableDelta;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.BasicType;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CQLScriptWriterTest {
+
+    private final static String SCRIPT = "-- Patch for keyspace \"keyspace1\"\n" +
+            "-- Flags : DATA_LOSS\n" +
+            "\n" +
+            "-- Keyspace \"keyspace1\"\n" +
+            "CREATE KEYSPACE \"keyspace1\" WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'}  AND durable_writes = true;\n" +
+            "\n" +
+            "-- Table \"table1\"\n" +
+            "CREATE TABLE \"keyspace1\".\"table1\" (\"column1\" text, \"column2\" int, PRIMARY KEY (\"column1\"));\n" +
+            "\n" +
+            "-- Table \"table2\"\n" +
+            "-- Flags : DATA_LOSS\n" +
+            "ALTER TABLE \"keyspace1\".\"table2\" DROP \"column2\";\n" +
+            "\n" +
+            "-- Patch for keyspace \"keyspace2\"\n" +
+            "-- No update\n";
+
+    private DeltaResult createPatch() {
+        Keyspace keyspace = new Keyspace("keyspace1");
+
+        Table table1 = new Table("table1");
+        table1.addColumn(new Column("column1", BasicType.TEXT));
+        table1.addColumn(new Column("column2", BasicType.INT));
+        table1.addPartitioningKey("column1");
+
+        Table table2 = new Table("table2");
+        Column column = new Column("column2", BasicType.INT);
+        table2.addColumn(new Column("column1", BasicType.TEXT));
+        table2.addColumn(column);
+        table2.addPartitioningKey("column1");
+
+        DeltaList keyspaceList = new DeltaList();
+        keyspaceList.addDelta(new CreateKeyspaceDelta(keyspace));
+
+        DeltaList table1List = new DeltaList();
+        table1List.addDelta(new CreateTableDelta(keyspace, table1));
+
+        DeltaList table2List = new DeltaList();
+        table2List.addDelta(new DropColumnDelta(keyspace, table2, column));
+        table2List.addFlag(DeltaFlag.DATA_LOSS);
+
+        Map<String, DeltaList> tables = new HashMap<>();
+        tables.put("table2", table2List);
+        tables.put("table1", table1List);
+        tables.put("table3", new DeltaList());
+
+        return new DeltaResult("keyspace1", keyspaceList, tables);
+    }
+
+    @Test
+    public void writeTest() throws Exception {
+        StringWriter writer = new StringWriter();
+        new CQLScriptWriter()
+                .addPatch(createPatch())
+                .addPatch(new DeltaResult("keyspace2", new DeltaList(), new HashMap<>()))
+                .write(writer);
+
+        assertThat(writer.toString()).isEqualTo(SCRIPT);
+    }
+
+    @Test
+    public void writeFileTest() throws Exception {
+        Path path = Files.createTempFile("patch", ".cql");
+        try {
+            new CQLScriptWriter()
+                    .setBufferSize(16)
+                    .addPatch(createPatch())
+                    .addPatch(new DeltaResult("keyspace2", new DeltaList(), new HashMap<>()))
+                    .write(path);
+
+            assertThat(new String(Files.readAllBytes(path), StandardCharsets.UTF_8)).isEqualTo(SCRIPT);
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+}
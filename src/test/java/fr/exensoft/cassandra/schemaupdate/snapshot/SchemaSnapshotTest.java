@@ -0,0 +1,106 @@
+package fr.exensoft.cassandra.schemaupdate.snapshot;
+
+import fr.exensoft.cassandra.schemaupdate.SchemaUpdateException;
+import fr.exensoft.cassandra.schemaupdate.comparator.KeyspaceComparator;
+import fr.exensoft.cassandra.schemaupdate.model.Column;
+import fr.exensoft.cassandra.schemaupdate.model.Keyspace;
+import fr.exensoft.cassandra.schemaupdate.model.LazyKeyspace;
+import fr.exensoft.cassandra.schemaupdate.model.Table;
+import fr.exensoft.cassandra.schemaupdate.model.type.*;
+import fr.exensoft.cassandra.schemaupdate.model.values.IndexOption;
+import fr.exensoft.cassandra.schemaupdate.model.values.SortOrder;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+
+public class SchemaSnapshotTest {
+
+    private Keyspace createKeyspace(String name) {
+        return new Keyspace(name)
+                .addTable(new Table("table2")
+                        .addColumn(new Column("column1", BasicType.INT))
+                        .addColumn(new Column("column2", BasicType.TEXT))
+                        .addColumn(new Column("column3", BasicType.TIMEUUID))
+                        .addColumn(new Column("column4", new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT)))).addOldName("old_column4"))
+                        .addColumn(new Column("column5", new ListType(BasicType.VARCHAR)))
+                        .addPartitioningKey("column1")
+                        .addClusteringColumn("column2", SortOrder.DESC)
+                        .addClusteringColumn("column3")
+                        .addIndex("index4", "column4", IndexOption.KEYS))
+                .addTable(new Table("table1")
+                        .addColumn(new Column("column1", BasicType.UUID))
+                        .addColumn(new Column("column2", new SetType(BasicType.TEXT)))
+                        .addPartitioningKey("column1"));
+    }
+
+    private ByteBuffer write(Keyspace... keyspaces) throws Exception {
+        SchemaSnapshotWriter writer = new SchemaSnapshotWriter();
+        Arrays.stream(keyspaces).forEach(writer::addKeyspace);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.write(output);
+        return ByteBuffer.wrap(output.toByteArray());
+    }
+
+    @Test
+    public void readWriteTest() throws Exception {
+        Keyspace keyspace = createKeyspace("keyspace1");
+        SchemaSnapshotReader reader = new SchemaSnapshotReader(write(keyspace, createKeyspace("keyspace2")));
+
+        assertThat(reader.listKeyspaces()).containsExactly("keyspace1", "keyspace2");
+
+        Keyspace loaded = reader.loadKeyspace("keyspace1");
+
+        // Tables are decoded when they are requested
+        assertThat(loaded).isInstanceOf(LazyKeyspace.class);
+        assertThat(loaded.getTableNames()).containsExactly("table1", "table2");
+        assertThat(((LazyKeyspace) loaded).isLoaded("table1")).isFalse();
+        assertThat(loaded.getTable("table1").getKeyspace()).isSameAs(loaded);
+        assertThat(((LazyKeyspace) loaded).isLoaded("table1")).isTrue();
+        assertThat(((LazyKeyspace) loaded).isLoaded("table2")).isFalse();
+
+        assertThat(loaded.getTables()).hasSize(2);
+        assertThat(new KeyspaceComparator(loaded, keyspace).compare().hasUpdate()).isFalse();
+
+        Table table2 = loaded.getTable("table2");
+        assertThat(table2.getColumn("column4").getType()).isEqualTo(new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT))));
+        assertThat(table2.getColumn("column4").getOldNames()).containsExactly("old_column4");
+        assertThat(table2.getColumn("column5").getType()).isEqualTo(new ListType(BasicType.VARCHAR));
+        assertThat(table2.getClusteringColumns()).containsExactly(table2.getColumn("column2"), table2.getColumn("column3"));
+        assertThat(table2.getSortOrders().get(table2.getColumn("column2"))).isEqualTo(SortOrder.DESC);
+        assertThat(table2.getSortOrders().get(table2.getColumn("column3"))).isEqualTo(SortOrder.ASC);
+        assertThat(table2.getIndex(table2.getColumn("column4")).getName()).isEqualTo("index4");
+        assertThat(table2.getIndex(table2.getColumn("column4")).getOptions()).containsOnlyKeys(IndexOption.KEYS);
+
+        assertThat(reader.loadKeyspace("non_existing_keyspace")).isNull();
+    }
+
+    @Test
+    public void loadTableTest() throws Exception {
+        File file = File.createTempFile("schema", ".snapshot");
+        file.deleteOnExit();
+        new SchemaSnapshotWriter()
+                .addKeyspace(createKeyspace("keyspace1"))
+                .addKeyspace(new Keyspace("empty_keyspace"))
+                .write(file.toPath());
+
+        SchemaSnapshotReader reader = new SchemaSnapshotReader(file.toPath());
+
+        assertThat(reader.loadTable("keyspace1", "table1").getColumns()).hasSize(2);
+        assertThat(reader.loadTable("keyspace1", "table2").getColumns()).hasSize(5);
+        assertThat(reader.loadTable("keyspace1", "table3")).isNull();
+        assertThat(reader.loadTable("keyspace2", "table1")).isNull();
+        assertThat(reader.loadTables("empty_keyspace")).isEmpty();
+        assertThat(reader.loadKeyspace("keyspace1", Arrays.asList("table2", "table3")).getTables()).hasSize(1);
+    }
+
+    @Test(expected = SchemaUpdateException.class)
+    public void invalidSnapshotTest() {
+        new SchemaSnapshotReader(ByteBuffer.wrap(new byte[32]));
+    }
+}
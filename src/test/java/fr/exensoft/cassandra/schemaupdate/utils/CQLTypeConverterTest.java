@@ -93,4 +93,22 @@ public class CQLTypeConverterTest {
                 .isInstanceOf(SchemaUpdateException.class)
                 .hasMessageContaining("Map requires two type definition");
     }
+
+    @Test
+    public void cqlTypeTest() {
+        assertThat(CQLTypeConverter.cqlToType("varint")).isEqualTo(BasicType.VARINT);
+        assertThat(CQLTypeConverter.cqlToType("set<text>")).isEqualTo(new SetType(BasicType.TEXT));
+        assertThat(CQLTypeConverter.cqlToType("map<text, frozen<set<int>>>")).isEqualTo(new MapType(BasicType.TEXT, new FrozenType(new SetType(BasicType.INT))));
+        assertThat(CQLTypeConverter.cqlToType("LIST<blob>")).isEqualTo(new ListType(BasicType.BLOB));
+
+        assertThatThrownBy(()->
+                CQLTypeConverter.cqlToType("tuple<int, int>"))
+                .isInstanceOf(SchemaUpdateException.class)
+                .hasMessageContaining("Unknown type tuple");
+
+        assertThatThrownBy(()->
+                CQLTypeConverter.cqlToType("map<text>"))
+                .isInstanceOf(SchemaUpdateException.class)
+                .hasMessageContaining("Map requires two type definition");
+    }
 }
@@ -159,4 +159,25 @@ public class CQLTypeUtilsTest {
         assertThat(CQLTypeUtils.equals(new MapType(BasicType.INT, BasicType.BLOB), new MapType(BasicType.INT, BasicType.VARCHAR))).isFalse();
         assertThat(CQLTypeUtils.equals(new MapType(BasicType.INT, BasicType.BLOB), new MapType(BasicType.UUID, BasicType.BLOB))).isFalse();
     }
+
+    @Test
+    public void isCompatibleTest_BlobTarget() {
+        for(BasicType type : BasicType.values()) {
+            boolean expected = type != BasicType.COUNTER;
+            assertThat(CQLTypeUtils.isCompatible(type, BasicType.BLOB)).as(type.getType()).isEqualTo(expected);
+            assertThat(CQLTypeUtils.isOrderCompatible(type, BasicType.BLOB)).as(type.getType()).isEqualTo(type == BasicType.BLOB);
+        }
+    }
+
+    @Test
+    public void isCompatibleTest_CachedCollections() {
+        // Same results with new instances once the result is cached
+        for(int i=0;i<2;i++) {
+            assertThat(CQLTypeUtils.isCompatible(new MapType(BasicType.TEXT, new ListType(BasicType.INT)), new MapType(BasicType.VARCHAR, new ListType(BasicType.VARINT)))).isTrue();
+            assertThat(CQLTypeUtils.isOrderCompatible(new MapType(BasicType.TEXT, new ListType(BasicType.INT)), new MapType(BasicType.VARCHAR, new ListType(BasicType.VARINT)))).isTrue();
+            assertThat(CQLTypeUtils.isCompatible(new MapType(BasicType.TEXT, new ListType(BasicType.VARINT)), new MapType(BasicType.VARCHAR, new ListType(BasicType.INT)))).isFalse();
+            assertThat(CQLTypeUtils.isOrderCompatible(new SetType(BasicType.TIMEUUID), new SetType(BasicType.UUID))).isFalse();
+            assertThat(CQLTypeUtils.isCompatible(new SetType(BasicType.TIMEUUID), new SetType(BasicType.UUID))).isTrue();
+        }
+    }
 }